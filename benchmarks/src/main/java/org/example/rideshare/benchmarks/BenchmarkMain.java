@@ -0,0 +1,35 @@
+package org.example.rideshare.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of benchmarks.jar: plain JMH command line, with the GC profiler always on so
+ * every run reports allocation (gc.alloc.rate, gc.alloc.rate.norm) next to throughput/latency.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> argv = new ArrayList<>(List.of(args));
+        if (!hasGcProfiler(argv)) {
+            argv.add("-prof");
+            argv.add("gc");
+        }
+        Main.main(argv.toArray(String[]::new));
+    }
+
+    private static boolean hasGcProfiler(List<String> argv) {
+        for (int i = 0; i < argv.size() - 1; i++) {
+            String profiler = argv.get(i + 1);
+            if (argv.get(i).equals("-prof") && (profiler.equals("gc") || profiler.startsWith("gc:"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.rideshare.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.rideshare.exception.BadRequestException;
+import org.example.rideshare.exception.GlobalExceptionHandler;
+import org.example.rideshare.exception.NotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error responses through GlobalExceptionHandler (buildResponse behind each handler), alone and
+ * written as JSON the way the message converter does. Exceptions are created once, so the
+ * stack-trace capture of a real throw is not part of the number.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final NotFoundException notFound = new NotFoundException("Ride not found");
+    private final BadRequestException badRequest = new BadRequestException("limit must be at least 1");
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public Object notFound() {
+        return handler.handleNotFound(notFound);
+    }
+
+    @Benchmark
+    public Object badRequest() {
+        return handler.handleBadRequest(badRequest);
+    }
+
+    @Benchmark
+    public byte[] notFoundAsJson() throws Exception {
+        return objectMapper.writeValueAsBytes(handler.handleNotFound(notFound).getBody());
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.rideshare.benchmarks;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.example.rideshare.model.User;
+import org.example.rideshare.security.CustomUserDetails;
+import org.example.rideshare.security.CustomUserDetailsService;
+import org.example.rideshare.security.JwtAuthFilter;
+import org.example.rideshare.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the JWT filter for an authenticated request, with the user lookup stubbed out
+ * so only token handling is measured. legacyTokenRequest carries a token without uid/role
+ * claims, which goes through the (stubbed) user service; anonymousRequest has no token.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter filter;
+    private JwtService jwtService;
+    private String token;
+    private String legacyToken;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        CustomUserDetails alice = new CustomUserDetails(new User("alice", "x", "ROLE_USER"));
+        CustomUserDetailsService users = new CustomUserDetailsService(null, null) {
+            @Override
+            public CustomUserDetails loadUserByUsername(String username) {
+                return alice;
+            }
+        };
+        jwtService = new JwtService(10_000);
+        filter = new JwtAuthFilter(jwtService, users, new SimpleMeterRegistry());
+        token = jwtService.generateToken(alice);
+        legacyToken = Jwts.builder()
+                .setSubject("alice")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor("CHANGE_THIS_SECRET_KEY_TO_SOMETHING_LONG_256_BITS"
+                        .getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        return filter("Bearer " + token);
+    }
+
+    @Benchmark
+    public Object legacyTokenRequest() throws Exception {
+        return filter("Bearer " + legacyToken);
+    }
+
+    @Benchmark
+    public Object anonymousRequest() throws Exception {
+        return filter(null);
+    }
+
+    private Object filter(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/user/rides");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        Object principal = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    @Benchmark
+    public Object verifyToken() {
+        return jwtService.verify(token);
+    }
+}
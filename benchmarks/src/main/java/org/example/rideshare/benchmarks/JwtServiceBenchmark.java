@@ -0,0 +1,64 @@
+package org.example.rideshare.benchmarks;
+
+import org.example.rideshare.model.User;
+import org.example.rideshare.security.CustomUserDetails;
+import org.example.rideshare.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue (every login) and verification (every authenticated request). verifyCached is
+ * a repeat token served from the verified-token cache; verifyUncached cycles through more
+ * tokens than the cache holds, so each call pays the HMAC check and claims parsing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final int UNCACHED_TOKENS = 4096;
+
+    private JwtService jwtService;
+    private JwtService smallCacheService;
+    private CustomUserDetails alice;
+    private String token;
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        User user = new User("alice", "x", "ROLE_USER");
+        user.setId("64b7f0c2a1b2c3d4e5f60718");
+        alice = new CustomUserDetails(user);
+        jwtService = new JwtService(10_000);
+        token = jwtService.generateToken(alice);
+
+        smallCacheService = new JwtService(16);
+        tokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < tokens.length; i++) {
+            User other = new User("user-" + i, "x", "ROLE_USER");
+            other.setId(Integer.toHexString(i));
+            tokens[i] = smallCacheService.generateToken(new CustomUserDetails(other));
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(alice);
+    }
+
+    @Benchmark
+    public Object verifyCached() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public Object verifyUncached() {
+        next = (next + 1) & (UNCACHED_TOKENS - 1);
+        return smallCacheService.verify(tokens[next]);
+    }
+}
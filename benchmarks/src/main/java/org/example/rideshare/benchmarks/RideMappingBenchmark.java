@@ -0,0 +1,57 @@
+package org.example.rideshare.benchmarks;
+
+import org.bson.types.ObjectId;
+import org.example.rideshare.dto.RideResponse;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RideResponse.fromEntity over the list sizes the endpoints return: a single ride (request,
+ * accept, complete), default and maximum page sizes, and a full bulk request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RideMappingBenchmark {
+
+    @Param({ "1", "20", "100", "500" })
+    public int size;
+
+    private List<Ride> rides;
+
+    @Setup
+    public void setUp() {
+        rides = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Ride ride = new Ride("user-" + i, "Pickup street " + i, "Drop avenue " + i);
+            ride.setId(new ObjectId().toHexString());
+            ride.setDriverId("driver-" + i);
+            ride.setStatus(RideStatus.ACCEPTED);
+            ride.setCreatedAt(new Date());
+            ride.setAcceptedAt(new Date());
+            ride.setPickupPoint(new GeoJsonPoint(78.48 + i * 1e-4, 17.38));
+            ride.setDistanceKm(4.2);
+            ride.setFare(120.0);
+            rides.add(ride);
+        }
+    }
+
+    @Benchmark
+    public List<RideResponse> fromEntity() {
+        List<RideResponse> responses = new ArrayList<>(rides.size());
+        for (Ride ride : rides) {
+            responses.add(RideResponse.fromEntity(ride));
+        }
+        return responses;
+    }
+}
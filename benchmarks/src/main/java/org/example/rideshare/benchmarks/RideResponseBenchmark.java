@@ -0,0 +1,107 @@
+package org.example.rideshare.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.rideshare.dto.CursorPage;
+import org.example.rideshare.dto.RideResponse;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of GET /api/v1/user/rides from fetched documents to JSON bytes: the old path
+ * (full document -> Ride entity -> RideResponse -> bean serializer) against the projected
+ * one (projected document -> RideResponse -> hand-written serializer). Run with -prof gc to
+ * compare gc.alloc.rate.norm, the bytes allocated per page.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RideResponseBenchmark {
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class BeanSerialized {
+    }
+
+    @Param({ "20", "100" })
+    public int pageSize;
+
+    private MappingMongoConverter converter;
+    private List<Document> fullDocuments;
+    private List<Document> projectedDocuments;
+    private ObjectWriter beanWriter;
+    private ObjectWriter directWriter;
+
+    @Setup
+    public void setUp() {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+
+        fullDocuments = new ArrayList<>();
+        projectedDocuments = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Ride ride = new Ride("user-" + i, "Pickup street " + i, "Drop avenue " + i);
+            ride.setId(new ObjectId().toHexString());
+            ride.setDriverId("driver-" + i);
+            ride.setPickupPoint(new GeoJsonPoint(78.47 + i / 1000.0, 17.38));
+            ride.setDropPoint(new GeoJsonPoint(78.50, 17.44 + i / 1000.0));
+            ride.setStatus(RideStatus.COMPLETED);
+            ride.setFare(120.0 + i);
+            ride.setDistanceKm(8.5);
+            ride.setCreatedAt(new Date(1_700_000_000_000L + i * 60_000L));
+            ride.setAcceptedAt(new Date(1_700_000_030_000L + i * 60_000L));
+            ride.setCompletedAt(new Date(1_700_001_000_000L + i * 60_000L));
+
+            Document full = new Document();
+            converter.write(ride, full);
+            fullDocuments.add(full);
+            Document projected = new Document("_id", full.get("_id"));
+            for (String field : RideResponse.FIELDS) {
+                if (full.containsKey(field)) {
+                    projected.put(field, full.get(field));
+                }
+            }
+            projectedDocuments.add(projected);
+        }
+
+        beanWriter = Jackson2ObjectMapperBuilder.json()
+                .mixIn(RideResponse.class, BeanSerialized.class)
+                .build()
+                .writerFor(CursorPage.class);
+        directWriter = Jackson2ObjectMapperBuilder.json().build().writerFor(CursorPage.class);
+    }
+
+    @Benchmark
+    public byte[] entityThenBeanSerializer() throws Exception {
+        List<RideResponse> rides = new ArrayList<>(pageSize);
+        for (Document doc : fullDocuments) {
+            rides.add(RideResponse.fromEntity(converter.read(Ride.class, doc)));
+        }
+        return beanWriter.writeValueAsBytes(new CursorPage<>(rides, null));
+    }
+
+    @Benchmark
+    public byte[] projectedThenDirectSerializer() throws Exception {
+        List<RideResponse> rides = new ArrayList<>(pageSize);
+        for (Document doc : projectedDocuments) {
+            rides.add(RideResponse.fromDocument(doc));
+        }
+        return directWriter.writeValueAsBytes(new CursorPage<>(rides, null));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.rideshare.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counts for one endpoint. Latency runs from the request's
+ * intended start (its scheduled arrival), not from when it was actually sent, so a stalled
+ * server shows up as queueing delay instead of being hidden by coordinated omission.
+ */
+final class EndpointStats {
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long latencyNanos, int status) {
+        latency.recordValue(latencyNanos);
+        if (status < 0) {
+            failed.increment();
+        } else if (status < 400) {
+            ok.increment();
+        } else if (status == 429) {
+            throttled.increment();
+        } else if (status < 500) {
+            clientErrors.increment();
+        } else {
+            serverErrors.increment();
+        }
+    }
+
+    // arrival skipped because max-in-flight requests were already outstanding
+    void dropped() {
+        dropped.increment();
+    }
+
+    void reset() {
+        latency.reset();
+        ok.reset();
+        clientErrors.reset();
+        throttled.reset();
+        serverErrors.reset();
+        failed.reset();
+        dropped.reset();
+    }
+
+    static String header() {
+        return String.format("%-46s %8s %9s %9s %9s %9s %9s %7s %6s %6s %6s %7s",
+                "endpoint", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "4xx", "429", "5xx", "err",
+                "dropped");
+    }
+
+    String row(double seconds) {
+        long count = latency.getTotalCount();
+        return String.format("%-46s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %7d %6d %6d %6d %7d",
+                name, count, count / seconds, millis(latency.getValueAtPercentile(50)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()), clientErrors.sum(), throttled.sum(), serverErrors.sum(), failed.sum(),
+                dropped.sum());
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,243 @@
+package org.example.rideshare.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-model traffic: each scenario has its own Poisson arrival stream at a fixed rate, and an
+ * arrival is sent whether or not earlier requests have come back, the way independent phones
+ * behave. Scenarios:
+ * <ul>
+ * <li>ride-request: a random passenger POSTs /api/v1/rides</li>
+ * <li>driver-poll: a random driver GETs the pending list and, with accept-probability, tries to
+ * accept one of the first rides on it, so drivers race on the same rides</li>
+ * <li>a won accept is completed after an exponentially distributed trip time</li>
+ * <li>dashboard: analytics reads, cycling through the dashboard widgets</li>
+ * </ul>
+ */
+final class LoadGenerator {
+
+    private static final double CENTER_LAT = 17.385;
+    private static final double CENTER_LON = 78.4867;
+
+    private final URI base;
+    private final LoadTest.Population population;
+    private final LoadTest.Settings settings;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService trips = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "load-trips");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Semaphore inFlight;
+    private final Map<String, EndpointStats> stats = new ConcurrentSkipListMap<>();
+    private volatile boolean running;
+
+    LoadGenerator(URI base, LoadTest.Population population, LoadTest.Settings settings) {
+        this.base = base;
+        this.population = population;
+        this.settings = settings;
+        this.inFlight = new Semaphore(settings.maxInFlight());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newCachedThreadPool(task -> {
+                    Thread thread = new Thread(task, "load-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    /** Drives all scenarios for {@code duration}, then waits for outstanding requests. */
+    void run(Duration duration) throws InterruptedException {
+        running = true;
+        long end = System.nanoTime() + duration.toNanos();
+        List<Thread> arrivals = new ArrayList<>();
+        arrivals.add(arrivals("ride-request", settings.rideRequestRate(), end, this::requestRide));
+        arrivals.add(arrivals("driver-poll", settings.driverPollRate(), end, this::pollAndMaybeAccept));
+        arrivals.add(arrivals("dashboard", settings.dashboardRate(), end, this::readDashboard));
+        for (Thread thread : arrivals) {
+            thread.join();
+        }
+        running = false;
+        // let in-flight requests finish so their latencies are counted
+        if (inFlight.tryAcquire(settings.maxInFlight(), 30, TimeUnit.SECONDS)) {
+            inFlight.release(settings.maxInFlight());
+        }
+    }
+
+    void reset() {
+        stats.values().forEach(EndpointStats::reset);
+    }
+
+    void report(Duration measured) {
+        double seconds = measured.toNanos() / 1e9;
+        System.out.println();
+        System.out.println(EndpointStats.header());
+        stats.values().forEach(endpoint -> System.out.println(endpoint.row(seconds)));
+        System.out.println();
+    }
+
+    void shutdown() {
+        running = false;
+        trips.shutdownNow();
+    }
+
+    private Thread arrivals(String name, double perSecond, long end, LongConsumer arrival) {
+        Thread thread = new Thread(() -> {
+            if (perSecond <= 0) {
+                return;
+            }
+            double meanGapNanos = 1e9 / perSecond;
+            long next = System.nanoTime();
+            while (true) {
+                // exponential gaps make the arrivals a Poisson process
+                next += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+                if (next >= end) {
+                    return;
+                }
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                arrival.accept(next);
+            }
+        }, "load-arrivals-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void requestRide(long intendedStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = String.format(Locale.ROOT,
+                "{\"pickupLocation\":\"Pickup %d\",\"dropLocation\":\"Drop %d\","
+                        + "\"pickupLat\":%.5f,\"pickupLon\":%.5f,\"dropLat\":%.5f,\"dropLon\":%.5f}",
+                random.nextInt(10_000), random.nextInt(10_000),
+                CENTER_LAT + random.nextDouble(-0.1, 0.1), CENTER_LON + random.nextDouble(-0.1, 0.1),
+                CENTER_LAT + random.nextDouble(-0.1, 0.1), CENTER_LON + random.nextDouble(-0.1, 0.1));
+        send("POST /api/v1/rides", post("/api/v1/rides", population.randomPassenger().token(), body),
+                intendedStart, null);
+    }
+
+    private void pollAndMaybeAccept(long intendedStart) {
+        LoadTest.Account driver = population.randomDriver();
+        send("GET /api/v1/driver/rides/requests", get("/api/v1/driver/rides/requests?limit=20", driver.token()),
+                intendedStart, response -> {
+                    if (ThreadLocalRandom.current().nextDouble() >= settings.acceptProbability()) {
+                        return;
+                    }
+                    JsonNode items = json(response).path("items");
+                    if (items.isEmpty()) {
+                        return;
+                    }
+                    // the oldest few rides are what every driver sees first, so accepts collide
+                    String rideId = items.get(ThreadLocalRandom.current().nextInt(Math.min(3, items.size())))
+                            .path("id").asText();
+                    accept(driver, rideId);
+                });
+    }
+
+    private void accept(LoadTest.Account driver, String rideId) {
+        send("POST /api/v1/driver/rides/{id}/accept",
+                post("/api/v1/driver/rides/" + rideId + "/accept", driver.token(), ""), System.nanoTime(),
+                response -> {
+                    long trip = (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble())
+                            * settings.tripTime().toNanos());
+                    trips.schedule(() -> complete(driver, rideId), trip, TimeUnit.NANOSECONDS);
+                });
+    }
+
+    private void complete(LoadTest.Account driver, String rideId) {
+        if (!running) {
+            return;
+        }
+        send("POST /api/v1/rides/{id}/complete", post("/api/v1/rides/" + rideId + "/complete", driver.token(), ""),
+                System.nanoTime(), null);
+    }
+
+    private void readDashboard(long intendedStart) {
+        // any authenticated user can read analytics; the dashboard runs as a passenger here
+        String token = population.randomPassenger().token();
+        switch (ThreadLocalRandom.current().nextInt(4)) {
+            case 0 -> send("GET /api/v1/analytics/status-summary",
+                    get("/api/v1/analytics/status-summary", token), intendedStart, null);
+            case 1 -> {
+                LocalDate today = LocalDate.now();
+                send("GET /api/v1/analytics/rides-per-day",
+                        get("/api/v1/analytics/rides-per-day?from=" + today.minusDays(7) + "&to=" + today
+                                + "&granularity=hour", token),
+                        intendedStart, null);
+            }
+            case 2 -> send("GET /api/v1/analytics/driver/{id}/summary",
+                    get("/api/v1/analytics/driver/" + population.randomDriver().id() + "/summary", token),
+                    intendedStart, null);
+            default -> send("GET /api/v1/analytics/user/{id}/spending",
+                    get("/api/v1/analytics/user/" + population.randomPassenger().id() + "/spending", token),
+                    intendedStart, null);
+        }
+    }
+
+    private void send(String endpoint, HttpRequest request, long intendedStart,
+            Consumer<HttpResponse<String>> onSuccess) {
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, EndpointStats::new);
+        if (!inFlight.tryAcquire()) {
+            endpointStats.dropped();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            inFlight.release();
+            endpointStats.record(System.nanoTime() - intendedStart, response == null ? -1 : response.statusCode());
+            if (response != null && response.statusCode() == 200 && onSuccess != null && running) {
+                onSuccess.accept(response);
+            }
+        });
+    }
+
+    private HttpRequest get(String path, String token) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private JsonNode json(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (Exception e) {
+            return objectMapper.createObjectNode();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.rideshare.loadtest;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.types.ObjectId;
+import org.example.rideshare.RideshareApplication;
+import org.example.rideshare.model.User;
+import org.example.rideshare.security.CustomUserDetails;
+import org.example.rideshare.security.JwtService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts the app in-process on a random port against an embedded mongod (or --mongo-uri),
+ * seeds passengers and drivers, drives open-model traffic for a warmup and a measured window,
+ * and prints throughput and p50/p99/p99.9 latency per endpoint.
+ *
+ * Options are --load.* (see {@link Settings#from}); every argument is also passed to the app,
+ * so --rideshare.* / --spring.* overrides apply to the server under test.
+ */
+public final class LoadTest {
+
+    record Account(String id, String token) {
+    }
+
+    record Population(List<Account> passengers, List<Account> drivers) {
+
+        Account randomPassenger() {
+            return passengers.get(ThreadLocalRandom.current().nextInt(passengers.size()));
+        }
+
+        Account randomDriver() {
+            return drivers.get(ThreadLocalRandom.current().nextInt(drivers.size()));
+        }
+    }
+
+    record Settings(Duration warmup, Duration duration, int passengers, int drivers, double rideRequestRate,
+            double driverPollRate, double dashboardRate, double acceptProbability, Duration tripTime,
+            int maxInFlight, String mongoUri) {
+
+        static Settings from(Map<String, String> options) {
+            return new Settings(
+                    DurationStyle.detectAndParse(options.getOrDefault("load.warmup", "15s")),
+                    DurationStyle.detectAndParse(options.getOrDefault("load.duration", "60s")),
+                    Integer.parseInt(options.getOrDefault("load.passengers", "2000")),
+                    Integer.parseInt(options.getOrDefault("load.drivers", "300")),
+                    Double.parseDouble(options.getOrDefault("load.rate.ride-request", "40")),
+                    Double.parseDouble(options.getOrDefault("load.rate.driver-poll", "120")),
+                    Double.parseDouble(options.getOrDefault("load.rate.dashboard", "10")),
+                    Double.parseDouble(options.getOrDefault("load.accept-probability", "0.3")),
+                    DurationStyle.detectAndParse(options.getOrDefault("load.trip-time", "2s")),
+                    Integer.parseInt(options.getOrDefault("load.max-in-flight", "5000")),
+                    options.get("mongo-uri"));
+        }
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.from(options(args));
+
+        TransitionWalker.ReachedState<RunningMongodProcess> mongod = null;
+        String mongoUri = settings.mongoUri();
+        if (mongoUri == null) {
+            mongod = Mongod.instance().start(Version.Main.V7_0);
+            ServerAddress address = mongod.current().getServerAddress();
+            mongoUri = "mongodb://" + address.getHost() + ":" + address.getPort() + "/rideshare_load";
+        }
+
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(RideshareApplication.class)
+                .properties("server.port=0", "spring.data.mongodb.uri=" + mongoUri,
+                        "logging.level.root=WARN", "server.tomcat.accept-count=1000")
+                .run(args);
+        LoadGenerator generator = null;
+        try {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            Population population = seed(app, settings);
+            generator = new LoadGenerator(URI.create("http://localhost:" + port), population, settings);
+
+            System.out.printf("Warming up for %s (ride-request %.0f/s, driver-poll %.0f/s, dashboard %.0f/s)%n",
+                    settings.warmup(), settings.rideRequestRate(), settings.driverPollRate(), settings.dashboardRate());
+            generator.run(settings.warmup());
+            generator.reset();
+
+            System.out.printf("Measuring for %s%n", settings.duration());
+            long started = System.nanoTime();
+            generator.run(settings.duration());
+            generator.report(Duration.ofNanos(System.nanoTime() - started));
+        } finally {
+            if (generator != null) {
+                generator.shutdown();
+            }
+            app.close();
+            if (mongod != null) {
+                mongod.close();
+            }
+        }
+    }
+
+    // Users go straight into Mongo and get tokens minted in-process, so thousands of accounts
+    // cost no BCrypt work; names carry a run id so a reused database never collides
+    private static Population seed(ConfigurableApplicationContext app, Settings settings) {
+        MongoTemplate mongoTemplate = app.getBean(MongoTemplate.class);
+        JwtService jwtService = app.getBean(JwtService.class);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+
+        List<User> users = new ArrayList<>();
+        List<Account> passengers = new ArrayList<>();
+        List<Account> drivers = new ArrayList<>();
+        for (int i = 0; i < settings.passengers() + settings.drivers(); i++) {
+            boolean driver = i >= settings.passengers();
+            User user = new User((driver ? "load-driver-" : "load-passenger-") + run + "-" + i, "-",
+                    driver ? "ROLE_DRIVER" : "ROLE_USER");
+            user.setId(new ObjectId().toHexString());
+            users.add(user);
+            Account account = new Account(user.getId(), jwtService.generateToken(new CustomUserDetails(user)));
+            (driver ? drivers : passengers).add(account);
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(users).execute();
+        return new Population(passengers, drivers);
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,161 @@
+package org.example.rideshare.config;
+
+import org.bson.Document;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Makes sure the index catalogue declared on the entities (@Indexed, @CompoundIndex,
+ * @GeoSpatialIndexed) exists before the app takes traffic, and logs indexes that are
+ * missing, undeclared or never used according to $indexStats. Indexes are matched by name
+ * and then by key spec, so one that drifted (same name, other keys or uniqueness) is
+ * reported too. Unique indexes are required: registration and the user import rely on them
+ * to reject duplicates, so startup fails if one is missing, drifted or cannot be built.
+ */
+@Component
+public class MongoIndexVerifier implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexVerifier.class);
+
+    private static final List<Class<?>> ENTITIES = List.of(Ride.class, User.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean createMissing;
+
+    public MongoIndexVerifier(MongoTemplate mongoTemplate,
+            @Value("${rideshare.mongo.indexes.create-missing:true}") boolean createMissing) {
+        this.mongoTemplate = mongoTemplate;
+        this.createMissing = createMissing;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Class<?> entity : ENTITIES) {
+            try {
+                verify(entity);
+            } catch (DataAccessResourceFailureException e) {
+                // Mongo is unreachable; nothing can be written either until it is back
+                logger.error("❌ Index verification failed for {}: {}", entity.getSimpleName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the names of declared indexes that were missing when the check ran. Throws
+     * IllegalStateException when a unique index is missing, drifted or fails to build.
+     */
+    public List<String> verify(Class<?> entity) {
+        String collection = mongoTemplate.getCollectionName(entity);
+        IndexOperations indexOps = mongoTemplate.indexOps(entity);
+        MongoMappingContext mappingContext = (MongoMappingContext) mongoTemplate.getConverter().getMappingContext();
+
+        Map<String, Document> existing = new HashMap<>();
+        for (Document index : mongoTemplate.getCollection(collection).listIndexes()) {
+            existing.put(index.getString("name"), index);
+        }
+
+        List<String> declared = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (IndexDefinition index : new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(entity)) {
+            String name = index.getIndexOptions().getString("name");
+            boolean required = Boolean.TRUE.equals(index.getIndexOptions().get("unique"));
+            declared.add(name);
+            Document current = existing.get(name);
+            if (current != null) {
+                if (!sameSpec(index, current)) {
+                    String drift = String.format("Index %s.%s drifted: declared %s%s, found %s%s", collection, name,
+                            index.getIndexKeys().toJson(), required ? " unique" : "",
+                            current.get("key", Document.class).toJson(),
+                            Boolean.TRUE.equals(current.get("unique")) ? " unique" : "");
+                    if (required) {
+                        throw new IllegalStateException(drift);
+                    }
+                    logger.warn("📇 {}", drift);
+                }
+                continue;
+            }
+            missing.add(name);
+            if (createMissing) {
+                try {
+                    indexOps.ensureIndex(index);
+                    logger.info("📇 Created index {}.{}", collection, name);
+                } catch (RuntimeException e) {
+                    if (required) {
+                        throw new IllegalStateException("Could not build required index " + collection + "." + name
+                                + ": " + e.getMessage(), e);
+                    }
+                    logger.error("❌ Could not build index {}.{}: {}", collection, name, e.getMessage());
+                }
+            } else if (required) {
+                throw new IllegalStateException("Required index " + collection + "." + name + " is missing");
+            } else {
+                logger.warn("📇 Missing index {}.{}", collection, name);
+            }
+        }
+
+        for (String name : existing.keySet()) {
+            if (!"_id_".equals(name) && !declared.contains(name)) {
+                logger.warn("📇 Undeclared index {}.{} (not in the entity catalogue)", collection, name);
+            }
+        }
+        reportUnused(collection, missing);
+        return missing;
+    }
+
+    // Key order and direction, uniqueness, and for text indexes the indexed fields
+    static boolean sameSpec(IndexDefinition declared, Document existing) {
+        Document declaredKeys = declared.getIndexKeys();
+        Document existingKeys = existing.get("key", Document.class);
+        boolean declaredUnique = Boolean.TRUE.equals(declared.getIndexOptions().get("unique"));
+        if (declaredUnique != Boolean.TRUE.equals(existing.get("unique")) || existingKeys == null) {
+            return false;
+        }
+        if (declaredKeys.containsValue("text")) {
+            // stored as {_fts: "text", _ftsx: 1} with the fields under "weights"
+            Document weights = existing.get("weights", Document.class);
+            return existingKeys.containsKey("_fts") && weights != null
+                    && weights.keySet().equals(declaredKeys.keySet());
+        }
+        return normalized(declaredKeys).equals(normalized(existingKeys));
+    }
+
+    // 1, 1L and 1.0 are the same direction
+    private static List<Map.Entry<String, Object>> normalized(Document keys) {
+        Map<String, Object> spec = new LinkedHashMap<>();
+        keys.forEach((field, value) -> spec.put(field,
+                value instanceof Number n ? (Object) Double.valueOf(n.doubleValue()) : Objects.toString(value)));
+        return new ArrayList<>(spec.entrySet());
+    }
+
+    private void reportUnused(String collection, List<String> justCreated) {
+        Aggregation stats = Aggregation.newAggregation(
+                context -> new Document("$indexStats", new Document()));
+        for (Document index : mongoTemplate.aggregate(stats, collection, Document.class)) {
+            Document accesses = index.get("accesses", Document.class);
+            Number ops = accesses != null ? accesses.get("ops", Number.class) : null;
+            String name = index.getString("name");
+            if (ops != null && ops.longValue() == 0 && !"_id_".equals(name) && !justCreated.contains(name)) {
+                logger.info("📇 Index {}.{} unused since {}", collection, name, accesses.get("since"));
+            }
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package org.example.rideshare.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.rideshare.security.MeteredBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class PasswordConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+            @Value("${rideshare.auth.bcrypt.strength:10}") int strength) {
+        return new MeteredBCryptPasswordEncoder(strength, meterRegistry);
     }
 }
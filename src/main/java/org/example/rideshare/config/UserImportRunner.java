@@ -0,0 +1,51 @@
+package org.example.rideshare.config;
+
+import org.example.rideshare.dto.UserImportReport;
+import org.example.rideshare.service.UserImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * One-shot CLI for fleet onboarding: start the app with {@code --import-users=fleet.csv}
+ * (plus {@code --spring.main.web-application-type=none} to skip the web server) and it imports
+ * the file, logs the report and exits; non-zero if any row failed to insert.
+ */
+@Component
+@ConditionalOnProperty("import-users")
+public class UserImportRunner implements ApplicationRunner {
+
+    private final UserImportService importService;
+    private final ConfigurableApplicationContext context;
+    private final String file;
+    private final String defaultRole;
+
+    public UserImportRunner(UserImportService importService, ConfigurableApplicationContext context,
+            @Value("${import-users}") String file,
+            @Value("${import-users-role:ROLE_DRIVER}") String defaultRole) {
+        this.importService = importService;
+        this.context = context;
+        this.file = file;
+        this.defaultRole = defaultRole;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        UserImportReport report;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+            report = importService.importCsv(reader, defaultRole);
+        }
+        ExitCodeGenerator exitCode = () -> report.getFailed() > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(context, exitCode));
+    }
+}
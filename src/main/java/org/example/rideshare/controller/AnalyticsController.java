@@ -1,22 +1,35 @@
 package org.example.rideshare.controller;
 
 import org.example.rideshare.service.AnalyticsService;
+import org.example.rideshare.service.RideBucketService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
+// Blocking analytics endpoints; ReactiveAnalyticsController serves the same paths under the
+// "reactive" profile
 @RestController
 @RequestMapping("/api")
+@Profile("!reactive")
 public class AnalyticsController {
 
     private final AnalyticsService analytics;
+    private final NdjsonStreamer ndjson;
 
-    public AnalyticsController(AnalyticsService a) {
+    public AnalyticsController(AnalyticsService a, NdjsonStreamer ndjson) {
         this.analytics = a;
+        this.ndjson = ndjson;
     }
 
     // --- Assignment 1 Endpoint ---
@@ -27,10 +40,16 @@ public class AnalyticsController {
 
     // --- Assignment 2 Endpoints (v1) ---
 
-    // 10. Rides per day
+    // 10. Rides per day/hour over a date range (defaults: last 30 days, server time zone)
     @GetMapping("/v1/analytics/rides-per-day")
-    public List<Map> ridesPerDay() {
-        return analytics.getRidesPerDay();
+    public List<Map<String, Object>> ridesPerDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String zone,
+            @RequestParam(defaultValue = "day") String granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return analytics.getRidesPerDay(start, end, zone, RideBucketService.Granularity.of(granularity));
     }
 
     // 11. Driver summary
@@ -39,15 +58,27 @@ public class AnalyticsController {
         return analytics.getDriverSummary(driverId);
     }
 
+    // 11b. Completed rides behind the driver summary, streamed as NDJSON
+    @GetMapping(value = "/v1/analytics/driver/{driverId}/rides/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> driverRidesExport(@PathVariable String driverId) {
+        return ndjson.stream(analytics.streamDriverCompletedRides(driverId));
+    }
+
     // 12. User spending
     @GetMapping("/v1/analytics/user/{userId}/spending")
     public Map<String, Object> userSpending(@PathVariable String userId) {
         return analytics.getUserSpending(userId);
     }
 
+    // 12b. Completed rides behind the user spending, streamed as NDJSON
+    @GetMapping(value = "/v1/analytics/user/{userId}/rides/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> userRidesExport(@PathVariable String userId) {
+        return ndjson.stream(analytics.streamUserCompletedRides(userId));
+    }
+
     // 13. Status summary
     @GetMapping("/v1/analytics/status-summary")
-    public List<Map> statusSummary() {
+    public List<Map<String, Object>> statusSummary() {
         return analytics.getStatusSummary();
     }
 }
@@ -6,74 +6,126 @@ import org.example.rideshare.dto.RegisterRequest;
 import org.example.rideshare.model.User;
 import org.example.rideshare.repository.UserRepository;
 import org.example.rideshare.security.CustomUserDetails;
+import org.example.rideshare.security.CustomUserDetailsService;
 import org.example.rideshare.security.JwtService;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.example.rideshare.security.PasswordHashExecutor;
+import org.example.rideshare.service.UserCache;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    // compared against when the username is unknown, so a miss costs the same BCrypt work as a hit
+    private static final String UNKNOWN_USER_PASSWORD = "userNotFoundPassword";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
+    private final CustomUserDetailsService userDetailsService;
     private final JwtService jwtService;
+    private final UserCache userCache;
+    private final PasswordHashExecutor hashExecutor;
+    private final Executor mongoExecutor;
+    private volatile String unknownUserHash;
 
     public AuthController(UserRepository userRepository,
             PasswordEncoder passwordEncoder,
-            AuthenticationManager authenticationManager,
-            JwtService jwtService) {
+            CustomUserDetailsService userDetailsService,
+            JwtService jwtService,
+            UserCache userCache,
+            PasswordHashExecutor hashExecutor,
+            @Qualifier("applicationTaskExecutor") Executor mongoExecutor) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
+        this.userDetailsService = userDetailsService;
         this.jwtService = jwtService;
+        this.userCache = userCache;
+        this.hashExecutor = hashExecutor;
+        this.mongoExecutor = mongoExecutor;
     }
 
     @PostMapping("/register")
-    public String register(@RequestBody RegisterRequest request) {
-
-        if (userRepository.existsByUsername(request.getUsername())) {
-            return "Username already taken";
-        }
+    public CompletableFuture<String> register(@RequestBody RegisterRequest request) {
 
         String role = request.getRole();
         if (!"ROLE_USER".equals(role) && !"ROLE_DRIVER".equals(role)) {
-            return "Role must be ROLE_USER or ROLE_DRIVER";
+            return CompletableFuture.completedFuture("Role must be ROLE_USER or ROLE_DRIVER");
         }
 
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword())); // BCrypt
-        user.setRole(role);
+        // 🔐 BCrypt runs on the hashing pool and the insert on the task executor, so hashing
+        // threads never wait on Mongo; the request thread is released meanwhile
+        return hashExecutor.submit(() -> passwordEncoder.encode(request.getPassword())).thenApplyAsync(hash -> {
+            User user = new User();
+            user.setUsername(request.getUsername());
+            user.setPassword(hash);
+            user.setRole(role);
 
-        userRepository.save(user);
+            // One round trip: the unique username index rejects a name that is taken, including
+            // one claimed by a concurrent registration
+            try {
+                userCache.refresh(userRepository.insert(user));
+            } catch (DuplicateKeyException e) {
+                return "Username already taken";
+            }
 
-        return "User registered successfully";
+            return "User registered successfully";
+        }, mongoExecutor);
     }
 
-    @PostMapping("/login")
-    public AuthResponse login(@RequestBody LoginRequest request) {
+    private record Verified(CustomUserDetails user, String upgradedHash) {
+    }
 
-        Authentication authentication;
+    @PostMapping("/login")
+    public CompletableFuture<AuthResponse> login(@RequestBody LoginRequest request) {
+        // Lookup on the request thread (normally a UserCache hit), BCrypt verify and any rehash
+        // on the hashing pool, and the write of an upgraded hash back on the task executor
+        CustomUserDetails found;
         try {
-            authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getUsername(),
-                            request.getPassword()));
-        } catch (BadCredentialsException e) {
-            throw new BadCredentialsException("Invalid username or password");
+            found = userDetailsService.loadUserByUsername(request.getUsername());
+        } catch (UsernameNotFoundException e) {
+            found = null;
         }
+        CustomUserDetails user = found;
+        String password = request.getPassword() != null ? request.getPassword() : "";
 
-        CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
-        String token = jwtService.generateToken(principal);
+        return hashExecutor.submit(() -> verify(user, password)).thenApplyAsync(verified -> {
+            CustomUserDetails principal = verified.upgradedHash() == null ? verified.user()
+                    : (CustomUserDetails) userDetailsService.updatePassword(verified.user(), verified.upgradedHash());
+            return new AuthResponse(
+                    jwtService.generateToken(principal),
+                    principal.getUsername(),
+                    principal.getRole());
+        }, mongoExecutor);
+    }
+
+    // Same checks DaoAuthenticationProvider made: a rehash when the stored cost differs from the
+    // configured one, and one message whether the user or the password was wrong
+    private Verified verify(CustomUserDetails user, String password) {
+        if (user == null) {
+            passwordEncoder.matches(password, unknownUserHash());
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            throw new BadCredentialsException("Invalid username or password");
+        }
+        String upgraded = passwordEncoder.upgradeEncoding(user.getPassword()) ? passwordEncoder.encode(password) : null;
+        return new Verified(user, upgraded);
+    }
 
-        return new AuthResponse(
-                token,
-                principal.getUsername(),
-                principal.getAuthorities().iterator().next().getAuthority());
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UNKNOWN_USER_PASSWORD);
+            unknownUserHash = hash;
+        }
+        return hash;
     }
 }
@@ -0,0 +1,99 @@
+package org.example.rideshare.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.DisconnectedClientHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of rows as application/x-ndjson, one JSON object per line, as the rows arrive.
+ * The source is only pulled as fast as the client reads: a blocked socket write stalls the
+ * iteration, and with it the next Mongo batch fetch. The source is only opened once the body
+ * runs, so an export whose body never starts (client gone, async timeout) holds no cursor, and
+ * it is always closed, including when the client disconnects midway. Exports get their own
+ * async timeout (rideshare.export.timeout); other async requests keep the default.
+ */
+@Component
+public class NdjsonStreamer {
+
+    private static final Logger log = LoggerFactory.getLogger(NdjsonStreamer.class);
+    private static final DisconnectedClientHelper disconnects =
+            new DisconnectedClientHelper(NdjsonStreamer.class.getName());
+
+    private final ObjectWriter writer;
+    private final int flushEvery;
+    private final Duration timeout;
+
+    public NdjsonStreamer(ObjectMapper objectMapper,
+            @Value("${rideshare.export.flush-every:500}") int flushEvery,
+            @Value("${rideshare.export.timeout:10m}") Duration timeout) {
+        // rows are separated by the newline we write, not Jackson's default space; flushing after
+        // every row would turn each line into its own chunk on the wire
+        this.writer = objectMapper.writer()
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushEvery = flushEvery;
+        this.timeout = timeout;
+    }
+
+    public ResponseEntity<StreamingResponseBody> stream(Supplier<? extends Stream<?>> source) {
+        extendAsyncTimeout();
+        StreamingResponseBody body = out -> {
+            long written = 0;
+            try (Stream<?> rows = source.get(); JsonGenerator json = writer.createGenerator(out)) {
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                Iterator<?> it = rows.iterator();
+                while (it.hasNext()) {
+                    writer.writeValue(json, it.next());
+                    json.writeRaw('\n');
+                    if (++written % flushEvery == 0) {
+                        json.flush();
+                    }
+                }
+            } catch (IOException e) {
+                if (disconnects.isClientDisconnectedException(e)) {
+                    log.debug("Client disconnected after {} exported rows", written);
+                    return;
+                }
+                throw e;
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // the body runs as an async request; set its timeout just before async processing starts
+    private void extendAsyncTimeout() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(
+                    NdjsonStreamer.class.getName(), new CallableProcessingInterceptor() {
+                        @Override
+                        public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                            if (request instanceof AsyncWebRequest asyncRequest) {
+                                asyncRequest.setTimeout(timeout.toMillis());
+                            }
+                        }
+                    });
+        }
+    }
+}
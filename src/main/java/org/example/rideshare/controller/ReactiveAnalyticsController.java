@@ -0,0 +1,80 @@
+package org.example.rideshare.controller;
+
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.service.ReactiveAnalyticsService;
+import org.example.rideshare.service.RideBucketService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// AnalyticsController's paths on the non-blocking read stack ("reactive" profile), so a burst of
+// slow analytics reads no longer holds Tomcat threads that ride requests need
+@RestController
+@RequestMapping("/api")
+@Profile("reactive")
+public class ReactiveAnalyticsController {
+
+    private final ReactiveAnalyticsService analytics;
+
+    public ReactiveAnalyticsController(ReactiveAnalyticsService a) {
+        this.analytics = a;
+    }
+
+    @GetMapping("/analytics/driver/{driver}/earnings")
+    public Mono<Double> earnings(@PathVariable String driver) {
+        return analytics.totalEarnings(driver);
+    }
+
+    // 10. Rides per day/hour over a date range (defaults: last 30 days, server time zone)
+    @GetMapping("/v1/analytics/rides-per-day")
+    public Mono<List<Map<String, Object>>> ridesPerDay(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String zone,
+            @RequestParam(defaultValue = "day") String granularity) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        return analytics.getRidesPerDay(start, end, zone, RideBucketService.Granularity.of(granularity));
+    }
+
+    // 11. Driver summary
+    @GetMapping("/v1/analytics/driver/{driverId}/summary")
+    public Mono<Map<String, Object>> driverSummary(@PathVariable String driverId) {
+        return analytics.getDriverSummary(driverId);
+    }
+
+    // 11b. Completed rides behind the driver summary, streamed as NDJSON
+    @GetMapping(value = "/v1/analytics/driver/{driverId}/rides/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Ride> driverRidesExport(@PathVariable String driverId) {
+        return analytics.streamDriverCompletedRides(driverId);
+    }
+
+    // 12. User spending
+    @GetMapping("/v1/analytics/user/{userId}/spending")
+    public Mono<Map<String, Object>> userSpending(@PathVariable String userId) {
+        return analytics.getUserSpending(userId);
+    }
+
+    // 12b. Completed rides behind the user spending, streamed as NDJSON
+    @GetMapping(value = "/v1/analytics/user/{userId}/rides/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Ride> userRidesExport(@PathVariable String userId) {
+        return analytics.streamUserCompletedRides(userId);
+    }
+
+    // 13. Status summary
+    @GetMapping("/v1/analytics/status-summary")
+    public Mono<List<Map<String, Object>>> statusSummary() {
+        return analytics.getStatusSummary();
+    }
+}
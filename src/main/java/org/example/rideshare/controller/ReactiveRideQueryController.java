@@ -0,0 +1,128 @@
+package org.example.rideshare.controller;
+
+import org.example.rideshare.dto.CursorPage;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.example.rideshare.service.ReactiveRideQueryService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+// RideQueryController's paths on the non-blocking read stack ("reactive" profile). MVC releases
+// the request thread while the Mono/Flux is pending and resumes when Mongo answers.
+@RestController
+@RequestMapping("/api")
+@Profile("reactive")
+public class ReactiveRideQueryController {
+
+    private final ReactiveRideQueryService service;
+
+    public ReactiveRideQueryController(ReactiveRideQueryService s) {
+        this.service = s;
+    }
+
+    // --- Assignment 2 Endpoints (v1) ---
+
+    // 1. Search rides by keyword
+    @GetMapping("/v1/rides/search")
+    public Mono<CursorPage<Ride>> search(@RequestParam("text") String text,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.searchRides(text, cursor, limit);
+    }
+
+    // 2. Filter by distance
+    @GetMapping("/v1/rides/filter-distance")
+    public Mono<CursorPage<Ride>> filterDistance(@RequestParam Double min, @RequestParam Double max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.filterByDistance(min, max, cursor, limit);
+    }
+
+    // 3. Filter by date range
+    @GetMapping("/v1/rides/filter-date-range")
+    public Mono<CursorPage<Ride>> filterDateRange(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.filterByDateRange(start, end, cursor, limit);
+    }
+
+    // 3b. Export a date range as NDJSON (streamed as the client reads, no paging)
+    @GetMapping(value = "/v1/rides/filter-date-range/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Ride> exportDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return service.streamByDateRange(start, end);
+    }
+
+    // 4. Sort by fare
+    @GetMapping("/v1/rides/sort")
+    public Mono<CursorPage<Ride>> sort(@RequestParam String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.sortByFare(order, cursor, limit);
+    }
+
+    // 5. Get rides for user
+    @GetMapping("/v1/rides/user/{userId}")
+    public Mono<CursorPage<Ride>> getUserRidesById(@PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.getRidesByUserId(userId, cursor, limit);
+    }
+
+    // 5b. Export all rides for user as NDJSON, newest first
+    @GetMapping(value = "/v1/rides/user/{userId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Ride> exportUserRides(@PathVariable String userId) {
+        return service.streamByUserId(userId);
+    }
+
+    // 6. Get rides for user by status
+    @GetMapping("/v1/rides/user/{userId}/status/{status}")
+    public Mono<CursorPage<Ride>> getUserRidesByStatus(@PathVariable String userId, @PathVariable RideStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.getRidesByUserAndStatus(userId, status, cursor, limit);
+    }
+
+    // 7. Driver's active rides
+    @GetMapping("/v1/driver/{driverId}/active-rides")
+    public Mono<CursorPage<Ride>> getDriverActiveRides(@PathVariable String driverId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.getDriverActiveRides(driverId, cursor, limit);
+    }
+
+    // 8. Filter rides by status + keyword
+    @GetMapping("/v1/rides/filter-status")
+    public Mono<CursorPage<Ride>> filterStatus(@RequestParam RideStatus status, @RequestParam("search") String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.filterByStatusAndKeyword(status, search, cursor, limit);
+    }
+
+    // 9. Advanced search
+    @GetMapping("/v1/rides/advanced-search")
+    public Mono<CursorPage<Ride>> advancedSearch(@RequestParam(required = false) String search,
+            @RequestParam(required = false) RideStatus status,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false, defaultValue = "asc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
+        return service.advancedSearch(search, status, sort, order, cursor, limit);
+    }
+
+    // 14. Rides on specific date
+    @GetMapping("/v1/rides/date/{date}")
+    public Mono<CursorPage<Ride>> ridesByDate(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.getRidesByDate(date, cursor, limit);
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.rideshare.controller;
+
+import org.example.rideshare.dto.CursorPage;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.example.rideshare.service.RideService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+// Ride search/filter reads on the blocking stack; ReactiveRideQueryController serves the same
+// paths under the "reactive" profile
+@RestController
+@RequestMapping("/api")
+@Profile("!reactive")
+public class RideQueryController {
+
+    private final RideService service;
+    private final NdjsonStreamer ndjson;
+
+    public RideQueryController(RideService s, NdjsonStreamer ndjson) {
+        this.service = s;
+        this.ndjson = ndjson;
+    }
+
+    // --- Assignment 2 Endpoints (v1) ---
+
+    // 1. Search rides by keyword
+    @GetMapping("/v1/rides/search")
+    public CursorPage<Ride> search(@RequestParam("text") String text,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.searchRides(text, cursor, limit);
+    }
+
+    // 2. Filter by distance
+    @GetMapping("/v1/rides/filter-distance")
+    public CursorPage<Ride> filterDistance(@RequestParam Double min, @RequestParam Double max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.filterByDistance(min, max, cursor, limit);
+    }
+
+    // 3. Filter by date range
+    @GetMapping("/v1/rides/filter-date-range")
+    public CursorPage<Ride> filterDateRange(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.filterByDateRange(start, end, cursor, limit);
+    }
+
+    // 3b. Export a date range as NDJSON (streamed, no paging)
+    @GetMapping(value = "/v1/rides/filter-date-range/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return ndjson.stream(service.streamByDateRange(start, end));
+    }
+
+    // 4. Sort by fare
+    @GetMapping("/v1/rides/sort")
+    public CursorPage<Ride> sort(@RequestParam String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.sortByFare(order, cursor, limit);
+    }
+
+    // 5. Get rides for user
+    @GetMapping("/v1/rides/user/{userId}")
+    public CursorPage<Ride> getUserRidesById(@PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.getRidesByUserId(userId, cursor, limit);
+    }
+
+    // 5b. Export all rides for user as NDJSON, newest first
+    @GetMapping(value = "/v1/rides/user/{userId}/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUserRides(@PathVariable String userId) {
+        return ndjson.stream(service.streamByUserId(userId));
+    }
+
+    // 6. Get rides for user by status
+    @GetMapping("/v1/rides/user/{userId}/status/{status}")
+    public CursorPage<Ride> getUserRidesByStatus(@PathVariable String userId, @PathVariable RideStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.getRidesByUserAndStatus(userId, status, cursor, limit);
+    }
+
+    // 7. Driver's active rides
+    @GetMapping("/v1/driver/{driverId}/active-rides")
+    public CursorPage<Ride> getDriverActiveRides(@PathVariable String driverId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.getDriverActiveRides(driverId, cursor, limit);
+    }
+
+    // 8. Filter rides by status + keyword
+    @GetMapping("/v1/rides/filter-status")
+    public CursorPage<Ride> filterStatus(@RequestParam RideStatus status, @RequestParam("search") String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.filterByStatusAndKeyword(status, search, cursor, limit);
+    }
+
+    // 9. Advanced search
+    @GetMapping("/v1/rides/advanced-search")
+    public CursorPage<Ride> advancedSearch(@RequestParam(required = false) String search,
+            @RequestParam(required = false) RideStatus status,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false, defaultValue = "asc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int limit) {
+        return service.advancedSearch(search, status, sort, order, cursor, limit);
+    }
+
+    // 14. Rides on specific date
+    @GetMapping("/v1/rides/date/{date}")
+    public CursorPage<Ride> ridesByDate(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return service.getRidesByDate(date, cursor, limit);
+    }
+}
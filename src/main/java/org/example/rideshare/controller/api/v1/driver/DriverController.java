@@ -1,14 +1,16 @@
 package org.example.rideshare.controller.api.v1.driver;
 
+import org.example.rideshare.dto.CursorPage;
+import org.example.rideshare.dto.NearbyRideResponse;
 import org.example.rideshare.dto.RideResponse;
 import org.example.rideshare.model.Ride;
+import org.example.rideshare.security.AuthenticatedUser;
 import org.example.rideshare.service.RideService;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/driver")
@@ -21,21 +23,28 @@ public class DriverController {
         this.rideService = rideService;
     }
 
-    // 🚗 View all pending ride requests
+    // 🚗 View pending ride requests, oldest first
     @GetMapping("/rides/requests")
-    public List<RideResponse> getPendingRides() {
-        List<Ride> rides = rideService.getPendingRides();
-        return rides.stream()
-                .map(RideResponse::fromEntity)
-                .collect(Collectors.toList());
+    public CursorPage<RideResponse> getPendingRides(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return rideService.getPendingRides(cursor, limit);
+    }
+
+    // 📍 Pending ride requests nearest to the driver (source=memory|mongo)
+    @GetMapping("/rides/requests/nearby")
+    public List<NearbyRideResponse> getNearbyPendingRides(@RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String source) {
+        return rideService.getNearbyPendingRides(lat, lon, radiusKm, limit, source);
     }
 
     // ✔ Accept a ride
     @PostMapping("/rides/{rideId}/accept")
     public RideResponse acceptRide(@PathVariable String rideId,
-            Authentication authentication) {
-        String driverUsername = authentication.getName();
-        Ride ride = rideService.acceptRide(rideId, driverUsername);
+            @AuthenticationPrincipal AuthenticatedUser driver) {
+        Ride ride = rideService.acceptRide(rideId, driver);
         return RideResponse.fromEntity(ride);
     }
 }
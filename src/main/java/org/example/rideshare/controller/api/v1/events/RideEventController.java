@@ -0,0 +1,28 @@
+package org.example.rideshare.controller.api.v1.events;
+
+import org.example.rideshare.event.RideEventBus;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/events")
+public class RideEventController {
+
+    private final RideEventBus eventBus;
+
+    public RideEventController(RideEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    // 📡 Ride lifecycle events for the caller (Bearer JWT) as server-sent events:
+    // ride-created, ride-accepted, ride-completed, each carrying the ride
+    @GetMapping(value = "/rides", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter rideEvents(@AuthenticationPrincipal AuthenticatedUser user) {
+        return eventBus.subscribe(user);
+    }
+}
@@ -1,14 +1,18 @@
 package org.example.rideshare.controller.api.v1.rides;
 
+import org.example.rideshare.dto.BatchRideResult;
 import org.example.rideshare.dto.CreateRideRequest;
 import org.example.rideshare.dto.RideResponse;
 import org.example.rideshare.model.Ride;
+import org.example.rideshare.security.AuthenticatedUser;
 import org.example.rideshare.service.RideService;
 import jakarta.validation.Valid;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-@RestController
+import java.util.List;
+
+@RestController("rideV1Controller")
 @RequestMapping("/api/v1/rides")
 public class RideController {
 
@@ -21,18 +25,23 @@ public class RideController {
     // 🚕 Request a ride (Passenger)
     @PostMapping
     public RideResponse requestRide(@Valid @RequestBody CreateRideRequest request,
-            Authentication authentication) {
-        String username = authentication.getName();
-        Ride ride = rideService.requestRide(request, username);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Ride ride = rideService.requestRide(request, user);
         return RideResponse.fromEntity(ride);
     }
 
+    // 🚕 Request many rides at once (partner integrations); per-item results in request order
+    @PostMapping("/batch")
+    public BatchRideResult requestRides(@RequestBody List<CreateRideRequest> requests,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        return rideService.requestRides(requests, user);
+    }
+
     // ✔ Complete a ride (Driver or User)
     @PostMapping("/{rideId}/complete")
     public RideResponse completeRide(@PathVariable String rideId,
-            Authentication authentication) {
-        String username = authentication.getName();
-        Ride ride = rideService.completeRide(rideId, username);
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        Ride ride = rideService.completeRide(rideId, user);
         return RideResponse.fromEntity(ride);
     }
 }
@@ -1,15 +1,13 @@
 package org.example.rideshare.controller.api.v1.user;
 
+import org.example.rideshare.dto.CursorPage;
 import org.example.rideshare.dto.RideResponse;
-import org.example.rideshare.model.Ride;
+import org.example.rideshare.security.AuthenticatedUser;
 import org.example.rideshare.service.RideService;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @RestController
 @RequestMapping("/api/v1/user")
 @PreAuthorize("hasRole('USER')")
@@ -21,13 +19,11 @@ public class UserController {
         this.rideService = rideService;
     }
 
-    // ✔ Get user's own rides
+    // ✔ Get user's own rides, newest first
     @GetMapping("/rides")
-    public List<RideResponse> getMyRides(Authentication authentication) {
-        String username = authentication.getName();
-        List<Ride> rides = rideService.getUserRides(username);
-        return rides.stream()
-                .map(RideResponse::fromEntity)
-                .collect(Collectors.toList());
+    public CursorPage<RideResponse> getMyRides(@AuthenticationPrincipal AuthenticatedUser user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return rideService.getUserRideResponses(user, cursor, limit);
     }
 }
@@ -0,0 +1,173 @@
+package org.example.rideshare.dispatch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-size lat/lon grid for k-nearest lookups over a few thousand moving points.
+ *
+ * Points are bucketed into cells of {@code cellDegrees} on each axis. A query walks
+ * square rings of cells outward from the query cell and stops as soon as nothing in
+ * the next ring can beat the current k-th best distance or lie inside the radius.
+ * When the rings would cover more cells than there are points (large radii, or high
+ * latitudes where longitude cells shrink towards nothing) or would wrap around the
+ * globe, the query scans every point once instead.
+ */
+public class GeoGrid<T> {
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private final double cellDegrees;
+    private final int columns;
+    private final int rows;
+    private final Map<Long, Map<String, Entry<T>>> cells = new ConcurrentHashMap<>();
+    private final Map<String, Long> cellById = new ConcurrentHashMap<>();
+
+    public GeoGrid(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 10) {
+            throw new IllegalArgumentException("cellDegrees must be in (0, 10]");
+        }
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+    }
+
+    public void put(String id, double lat, double lon, T value) {
+        long cell = cellOf(lat, lon);
+        Entry<T> entry = new Entry<>(id, lat, lon, value);
+        cellById.compute(id, (key, previous) -> {
+            if (previous != null && previous != cell) {
+                removeFromCell(previous, id);
+            }
+            cells.computeIfAbsent(cell, c -> new ConcurrentHashMap<>()).put(id, entry);
+            return cell;
+        });
+    }
+
+    public void remove(String id) {
+        cellById.computeIfPresent(id, (key, cell) -> {
+            removeFromCell(cell, id);
+            return null;
+        });
+    }
+
+    public int size() {
+        return cellById.size();
+    }
+
+    /** Up to {@code k} entries within {@code radiusKm} of the point, nearest first. */
+    public List<Match<T>> nearest(double lat, double lon, double radiusKm, int k) {
+        int row = row(lat);
+        int col = col(lon);
+
+        // a cell r rings away is at least (r - 1) cells of the narrower axis from the query point;
+        // longitude cells narrow towards the poles, so size them at the highest latitude the radius reaches
+        double reachLat = Math.min(90, Math.abs(lat) + radiusKm / KM_PER_DEGREE + cellDegrees);
+        double cosLat = Math.max(Math.cos(Math.toRadians(reachLat)), 1e-6);
+        double minCellKm = cellDegrees * KM_PER_DEGREE * Math.min(1.0, cosLat);
+        double rings = Math.ceil(radiusKm / minCellKm) + 1;
+
+        PriorityQueue<Match<T>> best = new PriorityQueue<>(
+                Comparator.comparingDouble((Match<T> m) -> m.distanceKm()).reversed());
+
+        // past half the columns a ring would revisit wrapped cells
+        if (2 * rings + 1 > columns || (2 * rings + 1) * (2 * rings + 1) > size()) {
+            for (Map<String, Entry<T>> bucket : cells.values()) {
+                offer(best, bucket, lat, lon, radiusKm, k);
+            }
+            return sorted(best);
+        }
+
+        int maxRing = (int) rings;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            double ringLowerBound = Math.max(0, ring - 1) * minCellKm;
+            if (ringLowerBound > radiusKm) {
+                break;
+            }
+            if (best.size() == k && best.peek().distanceKm() <= ringLowerBound) {
+                break;
+            }
+            // rows past the poles hold nothing
+            for (int dr = Math.max(-ring, -row); dr <= Math.min(ring, rows - 1 - row); dr++) {
+                for (int dc = -ring; dc <= ring; dc++) {
+                    if (Math.abs(dr) != ring && Math.abs(dc) != ring) {
+                        continue; // interior cells were visited by earlier rings
+                    }
+                    Map<String, Entry<T>> bucket = cells.get(key(row + dr, col + dc));
+                    if (bucket != null) {
+                        offer(best, bucket, lat, lon, radiusKm, k);
+                    }
+                }
+            }
+        }
+        return sorted(best);
+    }
+
+    private void offer(PriorityQueue<Match<T>> best, Map<String, Entry<T>> bucket, double lat, double lon,
+            double radiusKm, int k) {
+        for (Entry<T> e : bucket.values()) {
+            double d = haversineKm(lat, lon, e.lat, e.lon);
+            if (d > radiusKm) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(new Match<>(e.value, d));
+            } else if (d < best.peek().distanceKm()) {
+                best.poll();
+                best.add(new Match<>(e.value, d));
+            }
+        }
+    }
+
+    private static <T> List<Match<T>> sorted(PriorityQueue<Match<T>> best) {
+        List<Match<T>> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Match::distanceKm));
+        return result;
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void removeFromCell(long cell, String id) {
+        cells.computeIfPresent(cell, (c, bucket) -> {
+            bucket.remove(id);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private long cellOf(double lat, double lon) {
+        return key(row(lat), col(lon));
+    }
+
+    // lat 90 and lon 180 sit on the far edge of the last row/column, not in one past it
+    int row(double lat) {
+        return Math.min(rows - 1, (int) Math.floor((lat + 90) / cellDegrees));
+    }
+
+    int col(double lon) {
+        return Math.min(columns - 1, (int) Math.floor((lon + 180) / cellDegrees));
+    }
+
+    private long key(int row, int col) {
+        // columns wrap at the antimeridian
+        int wrapped = Math.floorMod(col, columns);
+        return ((long) row << 32) | (wrapped & 0xffffffffL);
+    }
+
+    private record Entry<T>(String id, double lat, double lon, T value) {
+    }
+
+    public record Match<T>(T value, double distanceKm) {
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.rideshare.dispatch;
+
+import org.example.rideshare.dto.NearbyRideResponse;
+import org.example.rideshare.dto.RideResponse;
+import org.example.rideshare.event.RideEvent;
+import org.example.rideshare.event.RidesCreatedEvent;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.example.rideshare.repository.RideRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of REQUESTED rides, oldest first, so polling drivers never hit Mongo.
+ * Rides with pickup coordinates are also kept in a {@link GeoGrid} for nearest-ride lookups.
+ *
+ * Loaded from the rides collection before the web server starts accepting requests and
+ * kept in sync from RideEvents afterwards. The index only sees writes made by this
+ * instance, so it assumes a single application node.
+ */
+@Component
+public class PendingRideIndex implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingRideIndex.class);
+
+    private final RideRepository rideRepository;
+
+    // ordered by (createdAt, id); the id keeps rides created in the same millisecond distinct
+    private final ConcurrentSkipListMap<Key, RideResponse> byAge = new ConcurrentSkipListMap<>();
+    private final Map<String, Key> keysById = new ConcurrentHashMap<>();
+    private final GeoGrid<RideResponse> pickups;
+
+    public PendingRideIndex(RideRepository rideRepository,
+            @Value("${rideshare.dispatch.grid-cell-degrees:0.01}") double gridCellDegrees) {
+        this.rideRepository = rideRepository;
+        this.pickups = new GeoGrid<>(gridCellDegrees);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<Ride> pending = rideRepository.findByStatus(RideStatus.REQUESTED);
+        pending.forEach(this::add);
+        logger.info("Dispatch index loaded with {} pending rides", pending.size());
+    }
+
+    // ahead of the SSE push, so a driver who hears about a ride finds it on the next poll
+    @EventListener
+    @Order(RideEvent.UPDATE_ORDER)
+    public void onRideEvent(RideEvent event) {
+        if (event.getType() == RideEvent.Type.CREATED) {
+            add(event.getRide());
+        } else {
+            remove(event.getRide().getId());
+        }
+    }
+
+    @EventListener
+    @Order(RideEvent.UPDATE_ORDER)
+    public void onRidesCreated(RidesCreatedEvent event) {
+        event.getRides().forEach(this::add);
+    }
+
+    /** Oldest pending rides first, at most {@code limit} of them. */
+    public List<RideResponse> oldest(int limit) {
+        return firstN(byAge.values(), limit);
+    }
+
+    /** Like {@link #oldest(int)}, starting after the ride with the given createdAt and id. */
+    public List<RideResponse> oldestAfter(long createdAt, String id, int limit) {
+        return firstN(byAge.tailMap(new Key(createdAt, id), false).values(), limit);
+    }
+
+    private List<RideResponse> firstN(Collection<RideResponse> rides, int limit) {
+        List<RideResponse> page = new ArrayList<>(Math.min(limit, keysById.size()));
+        for (RideResponse ride : rides) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(ride);
+        }
+        return page;
+    }
+
+    /** Up to {@code limit} pending rides whose pickup is within {@code radiusKm}, nearest first. */
+    public List<NearbyRideResponse> nearest(double lat, double lon, double radiusKm, int limit) {
+        return pickups.nearest(lat, lon, radiusKm, limit).stream()
+                .map(match -> new NearbyRideResponse(match.value(), match.distanceKm()))
+                .toList();
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    void add(Ride ride) {
+        Date createdAt = ride.getCreatedAt();
+        Key key = new Key(createdAt != null ? createdAt.getTime() : 0L, ride.getId());
+        // compute* holds the per-id lock, so both maps change together
+        keysById.computeIfAbsent(ride.getId(), id -> {
+            RideResponse response = RideResponse.fromEntity(ride);
+            byAge.put(key, response);
+            if (ride.getPickupPoint() != null) {
+                pickups.put(id, ride.getPickupPoint().getY(), ride.getPickupPoint().getX(), response);
+            }
+            return key;
+        });
+    }
+
+    void remove(String rideId) {
+        keysById.computeIfPresent(rideId, (id, key) -> {
+            byAge.remove(key);
+            pickups.remove(id);
+            return null;
+        });
+    }
+
+    private record Key(long createdAt, String id) implements Comparable<Key> {
+
+        private static final Comparator<Key> ORDER = Comparator.comparingLong(Key::createdAt)
+                .thenComparing(Key::id);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
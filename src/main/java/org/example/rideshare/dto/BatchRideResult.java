@@ -0,0 +1,87 @@
+package org.example.rideshare.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/** Per-item outcome of a bulk ride request, in request order. */
+public class BatchRideResult {
+
+    public enum Status {
+        CREATED,
+        INVALID,
+        FAILED
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+
+        private final int index;
+        private final Status status;
+        private final RideResponse ride;
+        private final String error;
+
+        private Item(int index, Status status, RideResponse ride, String error) {
+            this.index = index;
+            this.status = status;
+            this.ride = ride;
+            this.error = error;
+        }
+
+        public static Item created(int index, RideResponse ride) {
+            return new Item(index, Status.CREATED, ride, null);
+        }
+
+        public static Item invalid(int index, String error) {
+            return new Item(index, Status.INVALID, null, error);
+        }
+
+        public static Item failed(int index, String error) {
+            return new Item(index, Status.FAILED, null, error);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public RideResponse getRide() {
+            return ride;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final List<Item> items;
+    private final long tookMs;
+
+    public BatchRideResult(List<Item> items, long tookMs) {
+        this.items = items;
+        this.tookMs = tookMs;
+    }
+
+    public int getCreated() {
+        return count(Status.CREATED);
+    }
+
+    public int getRejected() {
+        return items.size() - getCreated();
+    }
+
+    public long getTookMs() {
+        return tookMs;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    private int count(Status status) {
+        return (int) items.stream().filter(item -> item.getStatus() == status).count();
+    }
+}
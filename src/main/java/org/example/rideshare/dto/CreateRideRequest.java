@@ -1,5 +1,7 @@
 package org.example.rideshare.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 
 public class CreateRideRequest {
@@ -10,6 +12,23 @@ public class CreateRideRequest {
     @NotBlank(message = "Drop location is required")
     private String dropLocation;
 
+    // Optional coordinates; lat and lon must be given together
+    @DecimalMin(value = "-90.0", message = "pickupLat must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "pickupLat must be between -90 and 90")
+    private Double pickupLat;
+
+    @DecimalMin(value = "-180.0", message = "pickupLon must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "pickupLon must be between -180 and 180")
+    private Double pickupLon;
+
+    @DecimalMin(value = "-90.0", message = "dropLat must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "dropLat must be between -90 and 90")
+    private Double dropLat;
+
+    @DecimalMin(value = "-180.0", message = "dropLon must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "dropLon must be between -180 and 180")
+    private Double dropLon;
+
     public String getPickupLocation() {
         return pickupLocation;
     }
@@ -25,4 +44,36 @@ public class CreateRideRequest {
     public void setDropLocation(String dropLocation) {
         this.dropLocation = dropLocation;
     }
+
+    public Double getPickupLat() {
+        return pickupLat;
+    }
+
+    public void setPickupLat(Double pickupLat) {
+        this.pickupLat = pickupLat;
+    }
+
+    public Double getPickupLon() {
+        return pickupLon;
+    }
+
+    public void setPickupLon(Double pickupLon) {
+        this.pickupLon = pickupLon;
+    }
+
+    public Double getDropLat() {
+        return dropLat;
+    }
+
+    public void setDropLat(Double dropLat) {
+        this.dropLat = dropLat;
+    }
+
+    public Double getDropLon() {
+        return dropLon;
+    }
+
+    public void setDropLon(Double dropLon) {
+        this.dropLon = dropLon;
+    }
 }
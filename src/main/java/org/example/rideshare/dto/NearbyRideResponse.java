@@ -0,0 +1,20 @@
+package org.example.rideshare.dto;
+
+public class NearbyRideResponse {
+
+    private final RideResponse ride;
+    private final double distanceKm;
+
+    public NearbyRideResponse(RideResponse ride, double distanceKm) {
+        this.ride = ride;
+        this.distanceKm = distanceKm;
+    }
+
+    public RideResponse getRide() {
+        return ride;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
@@ -1,17 +1,35 @@
 package org.example.rideshare.dto;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.example.rideshare.model.Ride;
 import org.example.rideshare.model.RideStatus;
 
+import java.io.IOException;
 import java.util.Date;
+import java.util.List;
 
+@JsonSerialize(using = RideResponse.Serializer.class)
 public class RideResponse {
 
+    /** Fields a rides query has to project for {@link #fromDocument}. */
+    public static final String[] FIELDS = {
+            "userId", "driverId", "pickupLocation", "dropLocation", "pickupPoint", "dropPoint", "status", "createdAt"
+    };
+
     private String id;
     private String userId;
     private String driverId;
     private String pickupLocation;
     private String dropLocation;
+    private Double pickupLat;
+    private Double pickupLon;
+    private Double dropLat;
+    private Double dropLon;
     private RideStatus status;
     private Date createdAt;
 
@@ -22,11 +40,50 @@ public class RideResponse {
         res.driverId = ride.getDriverId();
         res.pickupLocation = ride.getPickupLocation();
         res.dropLocation = ride.getDropLocation();
+        if (ride.getPickupPoint() != null) {
+            res.pickupLat = ride.getPickupPoint().getY();
+            res.pickupLon = ride.getPickupPoint().getX();
+        }
+        if (ride.getDropPoint() != null) {
+            res.dropLat = ride.getDropPoint().getY();
+            res.dropLon = ride.getDropPoint().getX();
+        }
         res.status = ride.getStatus();
         res.createdAt = ride.getCreatedAt();
         return res;
     }
 
+    // Straight from a projected rides document, without materialising a Ride entity first
+    public static RideResponse fromDocument(Document doc) {
+        RideResponse res = new RideResponse();
+        Object id = doc.get("_id");
+        res.id = id instanceof ObjectId objectId ? objectId.toHexString() : (String) id;
+        res.userId = doc.getString("userId");
+        res.driverId = doc.getString("driverId");
+        res.pickupLocation = doc.getString("pickupLocation");
+        res.dropLocation = doc.getString("dropLocation");
+        List<?> pickup = coordinates(doc, "pickupPoint");
+        if (pickup != null) {
+            res.pickupLat = ((Number) pickup.get(1)).doubleValue();
+            res.pickupLon = ((Number) pickup.get(0)).doubleValue();
+        }
+        List<?> drop = coordinates(doc, "dropPoint");
+        if (drop != null) {
+            res.dropLat = ((Number) drop.get(1)).doubleValue();
+            res.dropLon = ((Number) drop.get(0)).doubleValue();
+        }
+        String status = doc.getString("status");
+        res.status = status != null ? RideStatus.valueOf(status) : null;
+        res.createdAt = doc.getDate("createdAt");
+        return res;
+    }
+
+    // GeoJSON point: {type: "Point", coordinates: [lon, lat]}
+    private static List<?> coordinates(Document doc, String field) {
+        Document point = doc.get(field, Document.class);
+        return point != null ? point.get("coordinates", List.class) : null;
+    }
+
     // Getters (and setters if you want)
 
     public String getId() {
@@ -49,6 +106,22 @@ public class RideResponse {
         return dropLocation;
     }
 
+    public Double getPickupLat() {
+        return pickupLat;
+    }
+
+    public Double getPickupLon() {
+        return pickupLon;
+    }
+
+    public Double getDropLat() {
+        return dropLat;
+    }
+
+    public Double getDropLon() {
+        return dropLon;
+    }
+
     public RideStatus getStatus() {
         return status;
     }
@@ -56,4 +129,47 @@ public class RideResponse {
     public Date getCreatedAt() {
         return createdAt;
     }
+
+    /**
+     * Writes the fields directly instead of going through bean introspection; same property
+     * names, order and null handling as the default serializer, so the JSON is unchanged.
+     */
+    static class Serializer extends StdSerializer<RideResponse> {
+
+        Serializer() {
+            super(RideResponse.class);
+        }
+
+        @Override
+        public void serialize(RideResponse ride, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(ride);
+            gen.writeStringField("id", ride.id);
+            gen.writeStringField("userId", ride.userId);
+            gen.writeStringField("driverId", ride.driverId);
+            gen.writeStringField("pickupLocation", ride.pickupLocation);
+            gen.writeStringField("dropLocation", ride.dropLocation);
+            writeNumber(gen, "pickupLat", ride.pickupLat);
+            writeNumber(gen, "pickupLon", ride.pickupLon);
+            writeNumber(gen, "dropLat", ride.dropLat);
+            writeNumber(gen, "dropLon", ride.dropLon);
+            gen.writeStringField("status", ride.status != null ? ride.status.name() : null);
+            gen.writeFieldName("createdAt");
+            if (ride.createdAt != null) {
+                // honours the mapper's date settings (ISO-8601 under Spring Boot's defaults)
+                provider.defaultSerializeDateValue(ride.createdAt, gen);
+            } else {
+                gen.writeNull();
+            }
+            gen.writeEndObject();
+        }
+
+        private static void writeNumber(JsonGenerator gen, String name, Double value) throws IOException {
+            gen.writeFieldName(name);
+            if (value != null) {
+                gen.writeNumber(value);
+            } else {
+                gen.writeNull();
+            }
+        }
+    }
 }
@@ -0,0 +1,64 @@
+package org.example.rideshare.dto;
+
+import java.util.List;
+
+/** Outcome of recomputing one stats collection from the rides collection. */
+public class StatsReconcileReport {
+
+    private final String collection;
+    private final long checked;
+    private final long drifted;
+    private final long orphaned;
+    private final boolean repaired;
+    private final List<String> sampleIds;
+    private final long tookMs;
+
+    public StatsReconcileReport(String collection, long checked, long drifted, long orphaned, boolean repaired,
+            List<String> sampleIds, long tookMs) {
+        this.collection = collection;
+        this.checked = checked;
+        this.drifted = drifted;
+        this.orphaned = orphaned;
+        this.repaired = repaired;
+        this.sampleIds = sampleIds;
+        this.tookMs = tookMs;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    // owners with completed rides that were compared against their stats document
+    public long getChecked() {
+        return checked;
+    }
+
+    // stats documents that were missing or disagreed with the rides
+    public long getDrifted() {
+        return drifted;
+    }
+
+    // stats documents whose owner has no completed rides
+    public long getOrphaned() {
+        return orphaned;
+    }
+
+    public boolean isRepaired() {
+        return repaired;
+    }
+
+    // a few of the drifted/orphaned owner ids, for the log
+    public List<String> getSampleIds() {
+        return sampleIds;
+    }
+
+    public long getTookMs() {
+        return tookMs;
+    }
+
+    @Override
+    public String toString() {
+        return collection + ": checked=" + checked + " drifted=" + drifted + " orphaned=" + orphaned
+                + " repaired=" + repaired + " sample=" + sampleIds + " took=" + tookMs + "ms";
+    }
+}
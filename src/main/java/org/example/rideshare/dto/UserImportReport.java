@@ -0,0 +1,62 @@
+package org.example.rideshare.dto;
+
+import java.util.List;
+
+/** Outcome of a bulk user import. */
+public class UserImportReport {
+
+    private final long imported;
+    private final long duplicates;
+    private final long invalid;
+    private final long failed;
+    private final List<String> sampleErrors;
+    private final long tookMs;
+
+    public UserImportReport(long imported, long duplicates, long invalid, long failed, List<String> sampleErrors,
+            long tookMs) {
+        this.imported = imported;
+        this.duplicates = duplicates;
+        this.invalid = invalid;
+        this.failed = failed;
+        this.sampleErrors = sampleErrors;
+        this.tookMs = tookMs;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    // usernames that already existed (or appeared twice in the input)
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    // rows with a bad username, password or role; never hashed
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    // the first few invalid/failed rows, for the log
+    public List<String> getSampleErrors() {
+        return sampleErrors;
+    }
+
+    public long getTookMs() {
+        return tookMs;
+    }
+
+    public double getUsersPerSecond() {
+        return tookMs == 0 ? imported : imported * 1000.0 / tookMs;
+    }
+
+    @Override
+    public String toString() {
+        return "imported=" + imported + " duplicates=" + duplicates + " invalid=" + invalid + " failed=" + failed
+                + " took=" + tookMs + "ms (" + String.format("%.1f", getUsersPerSecond()) + " users/s)"
+                + (sampleErrors.isEmpty() ? "" : " errors=" + sampleErrors);
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.rideshare.event;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Published by CounterWriter after a batch of counter increments has been written, with the ids
+ * of the documents it touched per collection, so caches over those counters drop exactly the
+ * entries that changed. Runs on the flusher thread.
+ */
+public class CountersFlushedEvent {
+
+    private final Map<String, Set<Object>> touched;
+
+    public CountersFlushedEvent(Map<String, Set<Object>> touched) {
+        this.touched = touched;
+    }
+
+    public Set<Object> touched(String collection) {
+        return touched.getOrDefault(collection, Set.of());
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.rideshare.event;
+
+import org.example.rideshare.model.Ride;
+
+/**
+ * Published by RideService after a ride lifecycle write has been acknowledged by Mongo.
+ * Listeners run synchronously on the request thread, so they must stay cheap: Mongo-backed
+ * counters only hand their increments to CounterWriter. Listeners that maintain derived data
+ * run at {@link #UPDATE_ORDER}; clients are notified at {@link #PUSH_ORDER}, after the ride
+ * write and in-memory state are current (counters and the analytics cache follow within a
+ * flush interval, see CountersFlushedEvent).
+ */
+public class RideEvent {
+
+    public static final int UPDATE_ORDER = 0;
+    public static final int PUSH_ORDER = 200;
+
+    public enum Type {
+        CREATED,
+        ACCEPTED,
+        COMPLETED
+    }
+
+    private final Type type;
+    private final Ride ride;
+
+    public RideEvent(Type type, Ride ride) {
+        this.type = type;
+        this.ride = ride;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Ride getRide() {
+        return ride;
+    }
+}
@@ -0,0 +1,270 @@
+package org.example.rideshare.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.rideshare.dto.RideResponse;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-process fan-out of ride lifecycle events to server-sent-event subscribers, so drivers and
+ * passengers are told about changes instead of polling for them.
+ *
+ * A batch of created rides goes out as a single rides-created event carrying the list, so a
+ * batch of any size takes one slot in a subscriber's buffer.
+ *
+ * Drivers get every ride-created and ride-accepted (to add/drop pending requests) plus
+ * ride-completed for their own rides; passengers get all three for their own rides. Each event
+ * is serialised once and queued on every matching subscriber's bounded buffer; a small sender
+ * pool does the blocking writes, so the publishing request never waits on a client. A
+ * subscriber whose buffer fills up is disconnected and is expected to reconnect and re-list.
+ */
+@Component
+public class RideEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideEventBus.class);
+
+    // SseEventBuilder is single-use, so subscribers queue this and build their own event
+    private record Message(String id, String name, String json, String comment) {
+
+        static Message comment(String text) {
+            return new Message(null, null, null, text);
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (comment != null) {
+                return SseEmitter.event().comment(comment);
+            }
+            return SseEmitter.event().id(id).name(name).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final ExecutorService senders;
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong subscriberIds = new AtomicLong();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final Counter overflows;
+
+    public RideEventBus(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${rideshare.push.buffer-size:256}") int bufferSize,
+            @Value("${rideshare.push.max-subscribers:10000}") int maxSubscribers,
+            @Value("${rideshare.push.timeout:30m}") Duration timeout,
+            @Value("${rideshare.push.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeout.toMillis();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "ride-event-sender-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.overflows = Counter.builder("rideshare.push.overflows")
+                .description("Subscribers disconnected because their event buffer was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("rideshare.push.subscribers", subscribers, Map::size);
+    }
+
+    /** Opens an event stream for the caller; it ends on timeout, client disconnect or overflow. */
+    public SseEmitter subscribe(AuthenticatedUser user) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many event subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), user, emitter);
+        subscribers.put(subscriber.key, subscriber);
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(error -> subscriber.remove());
+        // tells the client the stream is live; anything published from here on is delivered
+        subscriber.offer(Message.comment("connected"));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // After the derived-data listeners, so a client that re-reads on an event sees the write;
+    // analytics catch up within a counter flush interval
+    @EventListener
+    @Order(RideEvent.PUSH_ORDER)
+    public void onRideEvent(RideEvent event) {
+        publish(event.getType(), event.getRide());
+    }
+
+    // Drivers get the whole batch, passengers the rides in it that are theirs (in practice a batch
+    // comes from one passenger, so it is usually serialised once)
+    @EventListener
+    @Order(RideEvent.PUSH_ORDER)
+    public void onRidesCreated(RidesCreatedEvent event) {
+        if (subscribers.isEmpty() || event.getRides().isEmpty()) {
+            return;
+        }
+        Map<String, List<Ride>> byPassenger = event.getRides().stream()
+                .collect(Collectors.groupingBy(Ride::getUserId));
+        Message all = batchMessage(event.getRides());
+        Map<String, Message> own = new HashMap<>();
+        for (Subscriber subscriber : subscribers.values()) {
+            Message message;
+            if ("ROLE_DRIVER".equals(subscriber.user.getRole())) {
+                message = all;
+            } else {
+                List<Ride> rides = byPassenger.get(subscriber.user.getId());
+                message = rides == null ? null : byPassenger.size() == 1 ? all
+                        : own.computeIfAbsent(subscriber.user.getId(), id -> batchMessage(rides));
+            }
+            if (message != null) {
+                subscriber.offer(message);
+            }
+        }
+    }
+
+    private Message batchMessage(List<Ride> rides) {
+        try {
+            String json = objectMapper.writeValueAsString(rides.stream().map(RideResponse::fromEntity).toList());
+            return new Message(Long.toString(eventIds.incrementAndGet()), "rides-created", json, null);
+        } catch (JsonProcessingException e) {
+            logger.warn("⚠️ Could not serialise a batch of {} created rides: {}", rides.size(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void publish(RideEvent.Type type, Ride ride) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(RideResponse.fromEntity(ride));
+        } catch (JsonProcessingException e) {
+            logger.warn("⚠️ Could not serialise {} of ride {}: {}", type, ride.getId(), e.getMessage());
+            return;
+        }
+        Message message = new Message(Long.toString(eventIds.incrementAndGet()),
+                "ride-" + type.name().toLowerCase(), json, null);
+        for (Subscriber subscriber : subscribers.values()) {
+            if (receives(subscriber.user, type, ride)) {
+                subscriber.offer(message);
+            }
+        }
+    }
+
+    static boolean receives(AuthenticatedUser user, RideEvent.Type type, Ride ride) {
+        if ("ROLE_DRIVER".equals(user.getRole())) {
+            return type != RideEvent.Type.COMPLETED || user.getId().equals(ride.getDriverId());
+        }
+        return user.getId().equals(ride.getUserId());
+    }
+
+    // Keeps idle connections open through proxies and finds clients that went away
+    @Scheduled(fixedRateString = "${rideshare.push.heartbeat:PT25S}")
+    public void heartbeat() {
+        Message ping = Message.comment("ping");
+        subscribers.values().forEach(subscriber -> subscriber.offer(ping));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+        try {
+            senders.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final long key;
+        private final AuthenticatedUser user;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> buffer;
+        // set while this subscriber is queued on or running in the sender pool
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Subscriber(long key, AuthenticatedUser user, SseEmitter emitter) {
+            this.key = key;
+            this.user = user;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Message message) {
+            if (!buffer.offer(message)) {
+                overflows.increment();
+                logger.warn("⚠️ Event buffer full for {}, disconnecting", user.getUsername());
+                remove();
+                emitter.complete();
+                return;
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Message message;
+                while ((message = buffer.poll()) != null) {
+                    emitter.send(message.toEvent());
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away or the emitter already completed
+                remove();
+                buffer.clear();
+            } finally {
+                scheduled.set(false);
+            }
+            // an offer that raced with the end of the loop saw scheduled=true and did not resubmit
+            if (!buffer.isEmpty() && subscribers.containsKey(key)) {
+                schedule();
+            }
+        }
+
+        void remove() {
+            subscribers.remove(key);
+        }
+    }
+}
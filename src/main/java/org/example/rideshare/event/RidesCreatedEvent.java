@@ -0,0 +1,23 @@
+package org.example.rideshare.event;
+
+import org.example.rideshare.model.Ride;
+
+import java.util.List;
+
+/**
+ * Published by RideService after a bulk insert has been acknowledged, carrying the rides that
+ * were actually inserted. Same contract as {@link RideEvent} with type CREATED, delivered once
+ * per batch so listeners can fold their writes together.
+ */
+public class RidesCreatedEvent {
+
+    private final List<Ride> rides;
+
+    public RidesCreatedEvent(List<Ride> rides) {
+        this.rides = rides;
+    }
+
+    public List<Ride> getRides() {
+        return rides;
+    }
+}
@@ -1,14 +1,44 @@
 package org.example.rideshare.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import java.util.Date;
 
+// Index catalogue for the rides collection; created/verified at startup by MongoIndexVerifier.
+// Each index is matched to a query shape in RideService (see RideQueryPlanTest). Lists are
+// keyset-paginated on (sort key, _id), so _id closes every sorted index.
 @Document(collection = "rides")
+@CompoundIndexes({
+        // getUserRides, getRidesByUserId
+        @CompoundIndex(name = "userId_createdAt_id", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        // getRidesByUserAndStatus
+        @CompoundIndex(name = "userId_status_createdAt_id", def = "{'userId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+        // getDriverRides
+        @CompoundIndex(name = "driverId_createdAt_id", def = "{'driverId': 1, 'createdAt': -1, '_id': -1}"),
+        // getDriverActiveRides
+        @CompoundIndex(name = "driverId_status_createdAt_id", def = "{'driverId': 1, 'status': 1, 'createdAt': -1, '_id': -1}"),
+        // findByStatus (dispatch recovery), advancedSearch by status
+        @CompoundIndex(name = "status_createdAt_id", def = "{'status': 1, 'createdAt': 1, '_id': 1}"),
+        // sortByFare
+        @CompoundIndex(name = "fare_id", def = "{'fare': 1, '_id': 1}"),
+        // filterByDistance
+        @CompoundIndex(name = "distanceKm_id", def = "{'distanceKm': 1, '_id': 1}"),
+        // filterByDateRange, getRidesByDate, advancedSearch without filters
+        @CompoundIndex(name = "createdAt_id", def = "{'createdAt': 1, '_id': 1}")
+})
 public class Ride {
 
     @Id
@@ -21,21 +51,48 @@ public class Ride {
     // RELATIONSHIP: Ride may be accepted by a Driver (User with ROLE_DRIVER)
     private String driverId; // nullable until a driver accepts
 
+    // searchRides, filterByStatusAndKeyword, advancedSearch (one text index over both fields)
+    @TextIndexed
     @NotBlank(message = "Pickup location is required")
     private String pickupLocation;
 
+    @TextIndexed
     @NotBlank(message = "Drop location is required")
     private String dropLocation;
 
+    // Relevance of a keyword search hit; only populated by text queries, never stored
+    @TextScore
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;
+
+    // Optional coordinates (GeoJSON, x = longitude, y = latitude)
+    @GeoSpatialIndexed(name = "pickupPoint_2dsphere", type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint pickupPoint;
+
+    private GeoJsonPoint dropPoint;
+
     @NotNull(message = "Ride status is required")
     private RideStatus status;
 
     private Double fare;
+
     private Double distanceKm;
 
     @CreatedDate
     private Date createdAt = new Date();
 
+    // set by the ACCEPTED/COMPLETED transitions; null on rides created before they were recorded
+    private Date acceptedAt;
+
+    private Date completedAt;
+
+    // Ids stamped by group-committed transitions so a caller can tell whether its update won
+    @JsonIgnore
+    private String acceptTxn;
+
+    @JsonIgnore
+    private String completeTxn;
+
     public Ride() {
     }
 
@@ -89,6 +146,30 @@ public class Ride {
         this.dropLocation = dropLocation;
     }
 
+    public Double getScore() {
+        return score;
+    }
+
+    public void setScore(Double score) {
+        this.score = score;
+    }
+
+    public GeoJsonPoint getPickupPoint() {
+        return pickupPoint;
+    }
+
+    public void setPickupPoint(GeoJsonPoint pickupPoint) {
+        this.pickupPoint = pickupPoint;
+    }
+
+    public GeoJsonPoint getDropPoint() {
+        return dropPoint;
+    }
+
+    public void setDropPoint(GeoJsonPoint dropPoint) {
+        this.dropPoint = dropPoint;
+    }
+
     public RideStatus getStatus() {
         return status;
     }
@@ -105,6 +186,38 @@ public class Ride {
         this.createdAt = createdAt;
     }
 
+    public Date getAcceptedAt() {
+        return acceptedAt;
+    }
+
+    public void setAcceptedAt(Date acceptedAt) {
+        this.acceptedAt = acceptedAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public String getAcceptTxn() {
+        return acceptTxn;
+    }
+
+    public void setAcceptTxn(String acceptTxn) {
+        this.acceptTxn = acceptTxn;
+    }
+
+    public String getCompleteTxn() {
+        return completeTxn;
+    }
+
+    public void setCompleteTxn(String completeTxn) {
+        this.completeTxn = completeTxn;
+    }
+
     public Double getFare() {
         return fare;
     }
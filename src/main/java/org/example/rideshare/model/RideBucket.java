@@ -0,0 +1,67 @@
+package org.example.rideshare.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Duration;
+import java.util.Date;
+
+// Ride lifecycle counts for one fixed UTC slot, keyed by the slot start. Slots are 15 minutes so
+// they line up with local hour/day boundaries in every time zone (offsets are multiples of 15m).
+// Maintained with $inc by RideBucketService through CounterWriter.
+@Document(collection = RideBucket.COLLECTION)
+public class RideBucket {
+
+    public static final String COLLECTION = "ride_buckets";
+
+    public static final Duration WIDTH = Duration.ofMinutes(15);
+
+    @Id
+    private Date start;
+
+    private long created;
+
+    private long accepted;
+
+    private long completed;
+
+    public RideBucket() {
+    }
+
+    public static Date slotOf(Date at) {
+        long millis = at.getTime();
+        return new Date(millis - Math.floorMod(millis, WIDTH.toMillis()));
+    }
+
+    public Date getStart() {
+        return start;
+    }
+
+    public void setStart(Date start) {
+        this.start = start;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(long accepted) {
+        this.accepted = accepted;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.rideshare.model;
+
+import org.springframework.data.annotation.Id;
+
+import java.util.Date;
+
+// Running totals over one driver's or one passenger's completed rides, keyed by their user id.
+// Stored in driver_stats and user_stats; maintained with $inc by RideStatsService.
+public class RideStats {
+
+    public static final String DRIVER_COLLECTION = "driver_stats";
+    public static final String USER_COLLECTION = "user_stats";
+
+    @Id
+    private String id;
+
+    private long completedRides;
+
+    private double totalFare;
+
+    private double totalDistanceKm;
+
+    // rides that had a distance; the average ignores the rest, like $avg does
+    private long distanceSamples;
+
+    private Date updatedAt;
+
+    public RideStats() {
+    }
+
+    public RideStats(String id, long completedRides, double totalFare, double totalDistanceKm, long distanceSamples) {
+        this.id = id;
+        this.completedRides = completedRides;
+        this.totalFare = totalFare;
+        this.totalDistanceKm = totalDistanceKm;
+        this.distanceSamples = distanceSamples;
+    }
+
+    public Double getAvgDistanceKm() {
+        return distanceSamples == 0 ? null : totalDistanceKm / distanceSamples;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public long getCompletedRides() {
+        return completedRides;
+    }
+
+    public void setCompletedRides(long completedRides) {
+        this.completedRides = completedRides;
+    }
+
+    public double getTotalFare() {
+        return totalFare;
+    }
+
+    public void setTotalFare(double totalFare) {
+        this.totalFare = totalFare;
+    }
+
+    public double getTotalDistanceKm() {
+        return totalDistanceKm;
+    }
+
+    public void setTotalDistanceKm(double totalDistanceKm) {
+        this.totalDistanceKm = totalDistanceKm;
+    }
+
+    public long getDistanceSamples() {
+        return distanceSamples;
+    }
+
+    public void setDistanceSamples(long distanceSamples) {
+        this.distanceSamples = distanceSamples;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
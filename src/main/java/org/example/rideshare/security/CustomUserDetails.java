@@ -16,6 +16,14 @@ public class CustomUserDetails implements UserDetails {
         this.user = user;
     }
 
+    public String getId() {
+        return user.getId();
+    }
+
+    public String getRole() {
+        return user.getRole();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // role is already like ROLE_USER / ROLE_DRIVER
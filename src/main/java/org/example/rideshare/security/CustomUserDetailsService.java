@@ -1,29 +1,57 @@
 package org.example.rideshare.security;
 
+import com.mongodb.client.result.UpdateResult;
 import org.example.rideshare.model.User;
-import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.service.UserCache;
 
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final MongoTemplate mongoTemplate;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomUserDetailsService(UserCache userCache, MongoTemplate mongoTemplate) {
+        this.userCache = userCache;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
-    public UserDetails loadUserByUsername(String username)
+    public CustomUserDetails loadUserByUsername(String username)
             throws UsernameNotFoundException {
 
-        User user = userRepository.findByUsername(username)
+        UserCache.Entry user = userCache.find(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        return new CustomUserDetails(user);
+        return new CustomUserDetails(user.toUser());
+    }
+
+    // Called after a successful login whose stored hash used a different BCrypt cost; only
+    // replaces the hash that was just verified, so a concurrent password change wins (and the
+    // cached entry is dropped rather than filled with a rehash of the old password)
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomUserDetails details = (CustomUserDetails) user;
+        UpdateResult result = mongoTemplate.updateFirst(
+                new Query(Criteria.where("username").is(details.getUsername()).and("password").is(details.getPassword())),
+                Update.update("password", newPassword), User.class);
+        if (result.getModifiedCount() == 0) {
+            userCache.invalidate(details.getUsername());
+            return user;
+        }
+
+        User updated = new User(details.getUsername(), newPassword, details.getRole());
+        updated.setId(details.getId());
+        userCache.refresh(updated);
+        return new CustomUserDetails(updated);
     }
 }
@@ -1,27 +1,44 @@
 package org.example.rideshare.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final CustomUserDetailsService userDetailsService;
+    private final Timer authenticated;
+    private final Timer rejected;
 
-    public JwtAuthFilter(JwtService jwtService, CustomUserDetailsService userDetailsService) {
+    public JwtAuthFilter(JwtService jwtService, CustomUserDetailsService userDetailsService,
+            MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.authenticated = timer(meterRegistry, "authenticated");
+        this.rejected = timer(meterRegistry, "rejected");
+    }
+
+    // Token handling only; the rest of the chain is not included
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("rideshare.auth.jwt.filter")
+                .description("Time to verify a bearer token and set the principal")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @Override
@@ -37,28 +54,39 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
+        long started = System.nanoTime();
+        Timer outcome = rejected;
         try {
             String token = authHeader.substring(7);
-            String username = jwtService.extractUsername(token);
+            // One signature check per token; repeat requests with the same token hit the verified cache
+            Claims claims = jwtService.verify(token);
+            String username = claims.getSubject();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                AuthenticatedUser principal = jwtService.toPrincipal(claims);
+                if (principal == null) {
+                    // Token issued before uid/role claims existed: fall back to the users collection
+                    CustomUserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    principal = new AuthenticatedUser(userDetails.getId(), userDetails.getUsername(),
+                            userDetails.getRole());
+                }
 
-                if (jwtService.isTokenValid(token, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities());
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        principal.getAuthorities());
 
-                    authToken.setDetails(
-                            new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request));
 
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+                outcome = authenticated;
             }
         } catch (Exception e) {
             // Token parsing failed, just continue without authentication
+        } finally {
+            outcome.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
 
         filterChain.doFilter(request, response);
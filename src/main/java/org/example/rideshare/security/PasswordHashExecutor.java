@@ -0,0 +1,65 @@
+package org.example.rideshare.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.rideshare.exception.ServiceBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size pool for the BCrypt work behind login and register, so a sign-in storm queues
+ * here instead of taking every Tomcat thread from ride traffic. The queue is bounded: once it
+ * is full, new sign-ins are turned away with 503 + Retry-After rather than waiting.
+ */
+@Component
+public class PasswordHashExecutor {
+
+    private final ThreadPoolExecutor pool;
+    private final Counter rejected;
+
+    public PasswordHashExecutor(MeterRegistry meterRegistry,
+            @Value("${rideshare.auth.hashing.threads:0}") int threads,
+            @Value("${rideshare.auth.hashing.queue-capacity:64}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "password-hash-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.rejected = Counter.builder("rideshare.auth.hash.rejected")
+                .description("Logins and registrations shed because the hashing queue was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("rideshare.auth.hash.queue", pool, executor -> executor.getQueue().size());
+        meterRegistry.gauge("rideshare.auth.hash.active", pool, ThreadPoolExecutor::getActiveCount);
+    }
+
+    /** Runs {@code task} on the hashing pool, or throws ServiceBusyException if the queue is full. */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, pool);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Too many sign-ins in progress, please retry shortly", 1);
+        }
+    }
+
+    public int queued() {
+        return pool.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
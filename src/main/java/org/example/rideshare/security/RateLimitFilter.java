@@ -0,0 +1,339 @@
+package org.example.rideshare.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-principal admission control for the ride write endpoints. Runs after JwtAuthFilter, so
+ * the caller is already known from the token, and turns a client that spams ride requests or
+ * accepts into 429s before any Mongo work happens. Reads and unauthenticated requests pass through.
+ *
+ * Each (user, endpoint class) pair has a token bucket sized by the caller's role. A batch request
+ * takes one token per ride from its own bucket (ride-batch, counted in rides), so its cost grows
+ * with its size. That is the only case that reads the body: the items are counted with a
+ * streaming parser and the bytes are replayed to the controller. Buckets live in a size-bounded
+ * cache that drops them after {@code idle-eviction} without traffic; as long as that
+ * is at least the refill window, an evicted bucket was full anyway, so eviction never forgives a
+ * client anything.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    enum EndpointClass {
+        // POST /api/rides, /api/v1/rides
+        RIDE_REQUEST,
+        // POST /api/v1/rides/batch, charged per ride in the batch
+        RIDE_BATCH,
+        // accept and complete, on both the legacy and v1 paths
+        RIDE_TRANSITION
+    }
+
+    /**
+     * {@code capacity} requests at once, refilled at {@code capacity} per {@code window}.
+     * Written as "capacity/window", e.g. "10/1m".
+     */
+    record Limit(int capacity, long intervalNanos) {
+
+        static Limit parse(String spec) {
+            int slash = spec.indexOf('/');
+            if (slash < 0) {
+                throw new IllegalArgumentException("Rate limit must look like 10/1m, got " + spec);
+            }
+            int capacity = Integer.parseInt(spec.substring(0, slash).trim());
+            Duration window = DurationStyle.detectAndParse(spec.substring(slash + 1).trim());
+            if (capacity < 1 || window.isZero() || window.isNegative()) {
+                throw new IllegalArgumentException("Rate limit must have a positive capacity and window, got " + spec);
+            }
+            return new Limit(capacity, Math.max(1, window.toNanos() / capacity));
+        }
+
+        long burstNanos() {
+            return intervalNanos * capacity;
+        }
+    }
+
+    private record BucketKey(String principalId, EndpointClass endpoint) {
+    }
+
+    /**
+     * Token bucket kept as a single "theoretical arrival time" (GCRA): a request is admitted
+     * when that time is at most one burst ahead of now, and pushes it one interval further.
+     * One CAS per admitted request, no locks, and a rejected request writes nothing.
+     */
+    static final class TokenBucket {
+
+        private final AtomicLong nextFree;
+
+        TokenBucket(long now) {
+            this.nextFree = new AtomicLong(now);
+        }
+
+        /** Takes a token and returns 0, or returns the nanos until one becomes available. */
+        long tryAcquire(Limit limit, long now) {
+            return tryAcquire(limit, now, 1);
+        }
+
+        /** Same for {@code cost} tokens at once (at most the capacity, or it never succeeds). */
+        long tryAcquire(Limit limit, long now, int cost) {
+            while (true) {
+                long current = nextFree.get();
+                long next = Math.max(current, now) + limit.intervalNanos() * cost;
+                long allowedAt = next - limit.burstNanos();
+                if (allowedAt > now) {
+                    return allowedAt - now;
+                }
+                if (nextFree.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final int maxBatchBytes;
+    private final Map<EndpointClass, Limit> userLimits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Limit> driverLimits = new EnumMap<>(EndpointClass.class);
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final LongSupplier clock;
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+
+    @Autowired
+    public RateLimitFilter(MeterRegistry meterRegistry,
+            @Value("${rideshare.rate-limit.enabled:true}") boolean enabled,
+            @Value("${rideshare.rate-limit.ride-request.user:10/1m}") String rideRequestUser,
+            @Value("${rideshare.rate-limit.ride-request.driver:5/1m}") String rideRequestDriver,
+            @Value("${rideshare.rate-limit.ride-transition.user:20/1m}") String rideTransitionUser,
+            @Value("${rideshare.rate-limit.ride-transition.driver:60/1m}") String rideTransitionDriver,
+            @Value("${rideshare.rate-limit.ride-batch:1000/10m}") String rideBatch,
+            @Value("${rideshare.rides.max-batch-size:500}") int maxBatchSize,
+            @Value("${rideshare.rides.max-batch-item-size:2KB}") DataSize maxBatchItemSize,
+            @Value("${rideshare.rate-limit.max-buckets:100000}") long maxBuckets,
+            @Value("${rideshare.rate-limit.idle-eviction:10m}") Duration idleEviction) {
+        this(meterRegistry, enabled, rideRequestUser, rideRequestDriver, rideTransitionUser, rideTransitionDriver,
+                rideBatch, maxBatchSize, maxBatchItemSize, maxBuckets, idleEviction, System::nanoTime);
+    }
+
+    RateLimitFilter(MeterRegistry meterRegistry, boolean enabled, String rideRequestUser, String rideRequestDriver,
+            String rideTransitionUser, String rideTransitionDriver, String rideBatch, int maxBatchSize,
+            DataSize maxBatchItemSize, long maxBuckets, Duration idleEviction, LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = Math.toIntExact(Math.multiplyExact(maxBatchSize, maxBatchItemSize.toBytes()));
+        Limit batchLimit = Limit.parse(rideBatch);
+        if (batchLimit.capacity() < maxBatchSize) {
+            throw new IllegalArgumentException("rideshare.rate-limit.ride-batch must allow at least "
+                    + maxBatchSize + " rides (rideshare.rides.max-batch-size), got " + rideBatch);
+        }
+        userLimits.put(EndpointClass.RIDE_REQUEST, Limit.parse(rideRequestUser));
+        userLimits.put(EndpointClass.RIDE_TRANSITION, Limit.parse(rideTransitionUser));
+        userLimits.put(EndpointClass.RIDE_BATCH, batchLimit);
+        driverLimits.put(EndpointClass.RIDE_REQUEST, Limit.parse(rideRequestDriver));
+        driverLimits.put(EndpointClass.RIDE_TRANSITION, Limit.parse(rideTransitionDriver));
+        driverLimits.put(EndpointClass.RIDE_BATCH, batchLimit);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleEviction)
+                .ticker(clock::getAsLong)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit.buckets");
+        for (EndpointClass endpoint : EndpointClass.values()) {
+            rejections.put(endpoint, Counter.builder("rideshare.rate-limit.rejected")
+                    .description("Requests turned away with 429 by the per-user rate limiter")
+                    .tag("endpoint", endpoint.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        EndpointClass endpoint = classify(request);
+        AuthenticatedUser user = endpoint != null ? currentUser() : null;
+        if (user == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        int cost = 1;
+        if (endpoint == EndpointClass.RIDE_BATCH) {
+            // the body is buffered to count its rides, so it is capped before anything is read
+            byte[] body = request.getContentLengthLong() > maxBatchBytes
+                    ? null : request.getInputStream().readNBytes(maxBatchBytes + 1);
+            if (body == null || body.length > maxBatchBytes) {
+                writeError(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Batch body must be at most " + maxBatchBytes + " bytes");
+                return;
+            }
+            cost = batchItems(body);
+            request = new CachedBodyRequest(request, body);
+        }
+
+        Limit limit = ("ROLE_DRIVER".equals(user.getRole()) ? driverLimits : userLimits).get(endpoint);
+        long now = clock.getAsLong();
+        long waitNanos = buckets.get(new BucketKey(user.getId(), endpoint), key -> new TokenBucket(now))
+                .tryAcquire(limit, now, cost);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // ⛔ Turned away before the controller: no body parsing, no Mongo
+        rejections.get(endpoint).increment();
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded, retry in " + retryAfter + "s");
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + status.name() + "\",\"message\":\"" + message
+                + "\",\"timestamp\":\"" + Instant.now() + "\"}");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod());
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/api/rides") || path.equals("/api/v1/rides")) {
+            return EndpointClass.RIDE_REQUEST;
+        }
+        if (path.equals("/api/v1/rides/batch")) {
+            return EndpointClass.RIDE_BATCH;
+        }
+        if (path.startsWith("/api/rides/accept/") || path.startsWith("/api/rides/complete/")
+                || (path.startsWith("/api/v1/driver/rides/") && path.endsWith("/accept"))
+                || (path.startsWith("/api/v1/rides/") && path.endsWith("/complete"))) {
+            return EndpointClass.RIDE_TRANSITION;
+        }
+        return null;
+    }
+
+    // Rides in a JSON array body. Anything the controller will reject with a 400 anyway (not an
+    // array, malformed, empty or over max-batch-size) costs a single token.
+    int batchItems(byte[] body) {
+        try (JsonParser parser = JSON.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return 1;
+            }
+            int items = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                parser.skipChildren();
+                if (++items > maxBatchSize) {
+                    return 1;
+                }
+            }
+            return Math.max(1, items);
+        } catch (IOException e) {
+            return 1;
+        }
+    }
+
+    private static AuthenticatedUser currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user
+                ? user : null;
+    }
+
+    long bucketCount() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    // Hands the already-read batch body to the rest of the chain
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Batch bodies are read synchronously");
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.rideshare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.rideshare.event.CountersFlushedEvent;
+import org.example.rideshare.model.RideBucket;
+import org.example.rideshare.model.RideStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Result cache for the analytics endpoints, one size-bounded, TTL-evicting cache per endpoint.
+ * Counter flushes invalidate exactly the entries they can change (the date ranges containing a
+ * written slot, the status summary, the owners whose totals were written), so the TTL only
+ * bounds how long a missed invalidation can live. Hit/miss/eviction counts are
+ * published as "analytics.*" cache metrics.
+ *
+ * Every loaded value is also kept in a last-good twin that invalidations do not touch (only
+ * last-good-ttl expires it), so a read that runs out of its time budget can still answer with the
+ * most recent result; see AnalyticsReads#degrade.
+ */
+@Component
+public class AnalyticsCache {
+
+    public record RidesPerDayKey(LocalDate from, LocalDate to, ZoneId zone, RideBucketService.Granularity granularity) {
+
+        boolean covers(Date at) {
+            LocalDate day = at.toInstant().atZone(zone).toLocalDate();
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+    }
+
+    private static final String STATUS_KEY = "all";
+
+    private final Cache<RidesPerDayKey, List<Map<String, Object>>> ridesPerDay;
+    private final Cache<String, List<Map<String, Object>>> statusSummary;
+    private final Cache<String, Optional<RideStats>> driverStats;
+    private final Cache<String, Optional<RideStats>> userStats;
+    private final Cache<RidesPerDayKey, List<Map<String, Object>>> lastRidesPerDay;
+    private final Cache<String, List<Map<String, Object>>> lastStatusSummary;
+    private final Cache<String, Optional<RideStats>> lastDriverStats;
+    private final Cache<String, Optional<RideStats>> lastUserStats;
+    // bumped by every invalidation; see cachedAsync
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AnalyticsCache(MeterRegistry meterRegistry,
+            @Value("${rideshare.analytics.cache.rides-per-day.max-size:1000}") long ridesPerDaySize,
+            @Value("${rideshare.analytics.cache.rides-per-day.ttl:60s}") Duration ridesPerDayTtl,
+            @Value("${rideshare.analytics.cache.status-summary.ttl:10s}") Duration statusSummaryTtl,
+            @Value("${rideshare.analytics.cache.driver-stats.max-size:10000}") long driverStatsSize,
+            @Value("${rideshare.analytics.cache.driver-stats.ttl:5m}") Duration driverStatsTtl,
+            @Value("${rideshare.analytics.cache.user-stats.max-size:10000}") long userStatsSize,
+            @Value("${rideshare.analytics.cache.user-stats.ttl:5m}") Duration userStatsTtl,
+            @Value("${rideshare.analytics.cache.last-good-ttl:1h}") Duration lastGoodTtl) {
+        this.ridesPerDay = build(meterRegistry, "analytics.rides-per-day", ridesPerDaySize, ridesPerDayTtl);
+        this.statusSummary = build(meterRegistry, "analytics.status-summary", 1, statusSummaryTtl);
+        this.driverStats = build(meterRegistry, "analytics.driver-stats", driverStatsSize, driverStatsTtl);
+        this.userStats = build(meterRegistry, "analytics.user-stats", userStatsSize, userStatsTtl);
+        this.lastRidesPerDay = buildLastGood(ridesPerDaySize, lastGoodTtl);
+        this.lastStatusSummary = buildLastGood(1, lastGoodTtl);
+        this.lastDriverStats = buildLastGood(driverStatsSize, lastGoodTtl);
+        this.lastUserStats = buildLastGood(userStatsSize, lastGoodTtl);
+    }
+
+    private static <K, V> Cache<K, V> build(MeterRegistry meterRegistry, String name, long maxSize, Duration ttl) {
+        Cache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        return cache;
+    }
+
+    private static <K, V> Cache<K, V> buildLastGood(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    private static <K, V> V remember(Cache<K, V> lastGood, K key, V value) {
+        lastGood.put(key, value);
+        return value;
+    }
+
+    public List<Map<String, Object>> ridesPerDay(RidesPerDayKey key, Supplier<List<Map<String, Object>>> loader) {
+        return ridesPerDay.get(key, k -> remember(lastRidesPerDay, k, List.copyOf(loader.get())));
+    }
+
+    public List<Map<String, Object>> statusSummary(Supplier<List<Map<String, Object>>> loader) {
+        return statusSummary.get(STATUS_KEY, k -> remember(lastStatusSummary, k, List.copyOf(loader.get())));
+    }
+
+    // driver earnings and driver summary are both views of the driver's stats document
+    public Optional<RideStats> driverStats(String driverId, Supplier<Optional<RideStats>> loader) {
+        return driverStats.get(driverId, k -> remember(lastDriverStats, k, loader.get()));
+    }
+
+    public Optional<RideStats> userStats(String userId, Supplier<Optional<RideStats>> loader) {
+        return userStats.get(userId, k -> remember(lastUserStats, k, loader.get()));
+    }
+
+    // Last good results, null when there is none; served only when a fresh read failed
+    public List<Map<String, Object>> lastRidesPerDay(RidesPerDayKey key) {
+        return lastRidesPerDay.getIfPresent(key);
+    }
+
+    public List<Map<String, Object>> lastStatusSummary() {
+        return lastStatusSummary.getIfPresent(STATUS_KEY);
+    }
+
+    public Optional<RideStats> lastDriverStats(String driverId) {
+        return lastDriverStats.getIfPresent(driverId);
+    }
+
+    public Optional<RideStats> lastUserStats(String userId) {
+        return lastUserStats.getIfPresent(userId);
+    }
+
+    // Non-blocking variants for the reactive read path, backed by the same caches
+    public Mono<List<Map<String, Object>>> ridesPerDayAsync(RidesPerDayKey key,
+            Supplier<Mono<List<Map<String, Object>>>> loader) {
+        return cachedAsync(ridesPerDay, lastRidesPerDay, key, () -> loader.get().map(List::copyOf));
+    }
+
+    public Mono<List<Map<String, Object>>> statusSummaryAsync(Supplier<Mono<List<Map<String, Object>>>> loader) {
+        return cachedAsync(statusSummary, lastStatusSummary, STATUS_KEY, () -> loader.get().map(List::copyOf));
+    }
+
+    public Mono<Optional<RideStats>> driverStatsAsync(String driverId, Supplier<Mono<Optional<RideStats>>> loader) {
+        return cachedAsync(driverStats, lastDriverStats, driverId, loader);
+    }
+
+    public Mono<Optional<RideStats>> userStatsAsync(String userId, Supplier<Mono<Optional<RideStats>>> loader) {
+        return cachedAsync(userStats, lastUserStats, userId, loader);
+    }
+
+    // An async load can't hold Caffeine's per-key lock the way get(key, loader) does, so an
+    // invalidation may land while it runs; the value is dropped again if that happened.
+    private <K, V> Mono<V> cachedAsync(Cache<K, V> cache, Cache<K, V> lastGood, K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            V hit = cache.getIfPresent(key);
+            if (hit != null) {
+                return Mono.just(hit);
+            }
+            long generation = invalidations.get();
+            return loader.get().doOnNext(value -> {
+                cache.put(key, value);
+                lastGood.put(key, value);
+                if (invalidations.get() != generation) {
+                    cache.invalidate(key);
+                }
+            });
+        });
+    }
+
+    // Every cached value is read from counters that CounterWriter writes after the ride event,
+    // so entries are dropped once the new counts have landed. Slots never straddle a local day,
+    // so a range covers a slot exactly when it covers its start.
+    @EventListener
+    public void onCountersFlushed(CountersFlushedEvent event) {
+        invalidations.incrementAndGet();
+        if (!event.touched(RideBucketService.STATUS_COLLECTION).isEmpty()) {
+            statusSummary.invalidateAll();
+        }
+        Set<Object> slots = event.touched(RideBucket.COLLECTION);
+        if (!slots.isEmpty()) {
+            ridesPerDay.asMap().keySet().removeIf(key -> slots.stream().anyMatch(slot -> key.covers((Date) slot)));
+        }
+        event.touched(RideStats.DRIVER_COLLECTION).forEach(driverStats.asMap()::remove);
+        event.touched(RideStats.USER_COLLECTION).forEach(userStats.asMap()::remove);
+    }
+
+    // after bulk repairs that bypass ride events (stats reconcile, bucket rebuild)
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        ridesPerDay.invalidateAll();
+        statusSummary.invalidateAll();
+        driverStats.invalidateAll();
+        userStats.invalidateAll();
+    }
+
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("rides-per-day", ridesPerDay.stats());
+        stats.put("status-summary", statusSummary.stats());
+        stats.put("driver-stats", driverStats.stats());
+        stats.put("user-stats", userStats.stats());
+        return stats;
+    }
+}
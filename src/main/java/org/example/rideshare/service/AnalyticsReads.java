@@ -0,0 +1,140 @@
+package org.example.rideshare.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.rideshare.exception.ServiceBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read side for the analytics endpoints and the cross-user ride filters. It has its own
+ * MongoTemplate on the shared client and converter, reading with rideshare.analytics.read-preference
+ * (secondaryPreferred by default) so dashboard reads and filter scans stay off the primary that
+ * serves ride writes. Every query carries the maxTimeMS budget of its kind; a query that runs out
+ * of budget goes through {@link #degrade}.
+ */
+@Component
+public class AnalyticsReads {
+
+    public enum Budget {
+        RIDES_PER_DAY("rides-per-day"),
+        STATUS_SUMMARY("status-summary"),
+        OWNER_STATS("owner-stats"),
+        RIDE_FILTER("ride-filter");
+
+        private final String tag;
+
+        Budget(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    // server error MaxTimeMSExpired
+    private static final int MAX_TIME_EXPIRED = 50;
+
+    private final MongoTemplate template;
+    private final Map<Budget, Duration> budgets = new EnumMap<>(Budget.class);
+    private final Map<Budget, Counter> servedStale = new EnumMap<>(Budget.class);
+    private final Map<Budget, Counter> unavailable = new EnumMap<>(Budget.class);
+
+    public AnalyticsReads(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter,
+            MeterRegistry meterRegistry,
+            @Value("${rideshare.analytics.read-preference:secondaryPreferred}") String readPreference,
+            @Value("${rideshare.analytics.max-staleness:0s}") Duration maxStaleness,
+            @Value("${rideshare.analytics.budget.rides-per-day:2s}") Duration ridesPerDayBudget,
+            @Value("${rideshare.analytics.budget.status-summary:500ms}") Duration statusSummaryBudget,
+            @Value("${rideshare.analytics.budget.owner-stats:500ms}") Duration ownerStatsBudget,
+            @Value("${rideshare.analytics.budget.ride-filter:3s}") Duration rideFilterBudget) {
+        this.template = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        this.template.setReadPreference(maxStaleness.isZero()
+                ? ReadPreference.valueOf(readPreference)
+                : ReadPreference.valueOf(readPreference, List.of(), maxStaleness.toMillis(), TimeUnit.MILLISECONDS));
+        budgets.put(Budget.RIDES_PER_DAY, ridesPerDayBudget);
+        budgets.put(Budget.STATUS_SUMMARY, statusSummaryBudget);
+        budgets.put(Budget.OWNER_STATS, ownerStatsBudget);
+        budgets.put(Budget.RIDE_FILTER, rideFilterBudget);
+        for (Budget budget : Budget.values()) {
+            servedStale.put(budget, exceededCounter(meterRegistry, budget, "stale"));
+            unavailable.put(budget, exceededCounter(meterRegistry, budget, "unavailable"));
+        }
+    }
+
+    private static Counter exceededCounter(MeterRegistry meterRegistry, Budget budget, String outcome) {
+        return Counter.builder("rideshare.analytics.budget.exceeded")
+                .description("Analytics reads that ran out of their time budget, by what was served instead")
+                .tag("query", budget.tag)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /** The analytics template itself, for reads that take no budget (streamed exports). */
+    public MongoTemplate template() {
+        return template;
+    }
+
+    public <T> List<T> find(Budget budget, Query query, Class<T> type) {
+        return template.find(limit(budget, query), type);
+    }
+
+    public <T> T findOne(Budget budget, Query query, Class<T> type, String collection) {
+        return template.findOne(limit(budget, query), type, collection);
+    }
+
+    public <T> List<T> aggregate(Budget budget, Aggregation aggregation, String collection, Class<T> type) {
+        Duration maxTime = budgets.get(budget);
+        Aggregation limited = maxTime.isZero() ? aggregation
+                : aggregation.withOptions(AggregationOptions.builder().maxTime(maxTime).build());
+        return template.aggregate(limited, collection, type).getMappedResults();
+    }
+
+    // a zero budget leaves the query unbounded
+    private Query limit(Budget budget, Query query) {
+        Duration maxTime = budgets.get(budget);
+        return maxTime.isZero() ? query : query.maxTime(maxTime);
+    }
+
+    /**
+     * Handles a failed budgeted read: anything but an exhausted budget is rethrown. Otherwise the
+     * last good result from {@code lastGood} is served, and with none (null) the caller gets a
+     * 503 with Retry-After instead of waiting on an overloaded node.
+     */
+    public <T> T degrade(Budget budget, DataAccessException failure, Supplier<T> lastGood) {
+        if (!budgetExceeded(failure)) {
+            throw failure;
+        }
+        T stale = lastGood.get();
+        if (stale != null) {
+            servedStale.get(budget).increment();
+            return stale;
+        }
+        unavailable.get(budget).increment();
+        long retryAfter = Math.max(1, (budgets.get(budget).toMillis() + 999) / 1000);
+        throw new ServiceBusyException("Query took longer than its " + budgets.get(budget).toMillis()
+                + "ms budget, try again shortly", retryAfter);
+    }
+
+    static boolean budgetExceeded(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongo && mongo.getCode() == MAX_TIME_EXPIRED) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,72 +1,146 @@
 package org.example.rideshare.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.bson.Document;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideBucket;
+import org.example.rideshare.model.RideStats;
 import org.example.rideshare.model.RideStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
-import org.springframework.data.mongodb.core.aggregation.DateOperators;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
-
+/**
+ * Dashboard reads over the maintained stats documents and bucket slots. Reads go through
+ * AnalyticsReads (analytics read preference, per-query time budgets) behind AnalyticsCache; a
+ * read that runs out of budget answers with the last good result when there is one.
+ */
+@Timed(value = "rideshare.service", histogram = true)
 @Service
 public class AnalyticsService {
 
-    private final MongoTemplate template;
+    private final AnalyticsReads reads;
+    private final RideBucketService rideBuckets;
+    private final AnalyticsCache cache;
+    private final int exportBatchSize;
 
-    public AnalyticsService(MongoTemplate template) {
-        this.template = template;
+    public AnalyticsService(AnalyticsReads reads, RideBucketService rideBuckets, AnalyticsCache cache,
+            @Value("${rideshare.export.batch-size:500}") int exportBatchSize) {
+        this.reads = reads;
+        this.rideBuckets = rideBuckets;
+        this.cache = cache;
+        this.exportBatchSize = exportBatchSize;
     }
 
-    // Existing method from assignment 1 instructions
+    // Existing method from assignment 1 instructions (read from the driver_stats counters)
     public Double totalEarnings(String driver) {
-        Aggregation agg = newAggregation(
-                match(Criteria.where("driverId").is(driver).and("status").is(RideStatus.COMPLETED)),
-                group().sum("fare").as("total"));
-
-        Map result = template.aggregate(agg, "rides", Map.class).getUniqueMappedResult();
-        return result != null && result.get("total") != null ? ((Number) result.get("total")).doubleValue() : 0.0;
+        return driverStats(driver).map(RideStats::getTotalFare).orElse(0.0);
     }
 
-    // 10. Rides per day
-    public List<Map> getRidesPerDay() {
-        Aggregation agg = newAggregation(
-                project().and(DateOperators.DateToString.dateOf("createdAt").toString("%Y-%m-%d")).as("date"),
-                group("date").count().as("count"),
-                sort(Sort.Direction.ASC, "_id"));
-        return template.aggregate(agg, "rides", Map.class).getMappedResults();
+    // 10. Rides per day (or hour) in a time zone, answered from the ride_buckets slots
+    public List<Map<String, Object>> getRidesPerDay(LocalDate from, LocalDate to, String zone,
+            RideBucketService.Granularity granularity) {
+        ZoneId zoneId = RideBucketService.zone(zone);
+        AnalyticsCache.RidesPerDayKey key = new AnalyticsCache.RidesPerDayKey(from, to, zoneId, granularity);
+        try {
+            return cache.ridesPerDay(key, () -> RideBucketService.toPeriods(
+                    reads.find(AnalyticsReads.Budget.RIDES_PER_DAY, rideBuckets.slotsQuery(from, to, zoneId),
+                            RideBucket.class),
+                    zoneId, granularity));
+        } catch (DataAccessException e) {
+            return reads.degrade(AnalyticsReads.Budget.RIDES_PER_DAY, e, () -> cache.lastRidesPerDay(key));
+        }
     }
 
     // 11. Driver summary (completed rides, total fare, avg distance)
     public Map<String, Object> getDriverSummary(String driverId) {
-        Aggregation agg = newAggregation(
-                match(Criteria.where("driverId").is(driverId).and("status").is(RideStatus.COMPLETED)),
-                group("driverId")
-                        .count().as("completedRides")
-                        .sum("fare").as("totalEarnings")
-                        .avg("distanceKm").as("avgDistance"));
-        return template.aggregate(agg, "rides", Map.class).getUniqueMappedResult();
+        return driverStats(driverId).map(AnalyticsService::driverSummary).orElse(null);
     }
 
     // 12. User spending
     public Map<String, Object> getUserSpending(String userId) {
-        Aggregation agg = newAggregation(
-                match(Criteria.where("userId").is(userId).and("status").is(RideStatus.COMPLETED)),
-                group("userId")
-                        .count().as("totalRides")
-                        .sum("fare").as("totalSpent"));
-        return template.aggregate(agg, "rides", Map.class).getUniqueMappedResult();
+        Optional<RideStats> stats;
+        try {
+            stats = cache.userStats(userId, () -> ownerStats(userId, RideStats.USER_COLLECTION));
+        } catch (DataAccessException e) {
+            stats = reads.degrade(AnalyticsReads.Budget.OWNER_STATS, e, () -> cache.lastUserStats(userId));
+        }
+        return stats.map(AnalyticsService::userSpending).orElse(null);
+    }
+
+    static Map<String, Object> driverSummary(RideStats stats) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("_id", stats.getId());
+        summary.put("completedRides", stats.getCompletedRides());
+        summary.put("totalEarnings", stats.getTotalFare());
+        summary.put("avgDistance", stats.getAvgDistanceKm());
+        return summary;
+    }
+
+    static Map<String, Object> userSpending(RideStats stats) {
+        Map<String, Object> spending = new LinkedHashMap<>();
+        spending.put("_id", stats.getId());
+        spending.put("totalRides", stats.getCompletedRides());
+        spending.put("totalSpent", stats.getTotalFare());
+        return spending;
+    }
+
+    // Raw rows behind the driver summary, newest first. The cursor opens when the supplier is
+    // called and the caller must close the stream. Exports use the analytics read preference but
+    // no time budget.
+    public Supplier<Stream<Ride>> streamDriverCompletedRides(String driverId) {
+        return streamCompleted(Criteria.where("driverId").is(driverId));
+    }
+
+    // Raw rows behind the user spending view, newest first; same contract as above
+    public Supplier<Stream<Ride>> streamUserCompletedRides(String userId) {
+        return streamCompleted(Criteria.where("userId").is(userId));
+    }
+
+    private Supplier<Stream<Ride>> streamCompleted(Criteria owner) {
+        Query query = completedRides(owner, exportBatchSize);
+        return () -> reads.template().stream(query, Ride.class);
+    }
+
+    static Query completedRides(Criteria owner, int batchSize) {
+        return new Query(owner.and("status").is(RideStatus.COMPLETED))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .cursorBatchSize(batchSize);
+    }
+
+    // 13. Status summary (maintained counters, not a collection scan)
+    public List<Map<String, Object>> getStatusSummary() {
+        try {
+            return cache.statusSummary(() -> RideBucketService.toStatusRows(reads.findOne(
+                    AnalyticsReads.Budget.STATUS_SUMMARY, RideBucketService.statusDoc(), Document.class,
+                    RideBucketService.STATUS_COLLECTION)));
+        } catch (DataAccessException e) {
+            return reads.degrade(AnalyticsReads.Budget.STATUS_SUMMARY, e, cache::lastStatusSummary);
+        }
+    }
+
+    private Optional<RideStats> driverStats(String driverId) {
+        try {
+            return cache.driverStats(driverId, () -> ownerStats(driverId, RideStats.DRIVER_COLLECTION));
+        } catch (DataAccessException e) {
+            return reads.degrade(AnalyticsReads.Budget.OWNER_STATS, e, () -> cache.lastDriverStats(driverId));
+        }
     }
 
-    // 13. Status summary
-    public List<Map> getStatusSummary() {
-        Aggregation agg = newAggregation(
-                group("status").count().as("count"));
-        return template.aggregate(agg, "rides", Map.class).getMappedResults();
+    private Optional<RideStats> ownerStats(String ownerId, String collection) {
+        return Optional.ofNullable(reads.findOne(AnalyticsReads.Budget.OWNER_STATS,
+                new Query(Criteria.where("_id").is(ownerId)), RideStats.class, collection));
     }
 }
@@ -0,0 +1,250 @@
+package org.example.rideshare.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.rideshare.event.CountersFlushedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for the derived counters (ride stats, buckets, status counts). Ride event
+ * listeners hand over their $inc deltas and return at once; deltas for the same document are
+ * summed, and every {@code flush-interval} one unordered bulk upsert per collection writes them.
+ * A burst of completions for one driver becomes a single upsert instead of one per ride, and
+ * none of it runs on the request thread.
+ *
+ * Counters therefore trail the rides collection by up to one interval. Deltas a flush could not
+ * write go back into the next one, up to {@code max-attempts} flushes; after that they are dropped
+ * (logged) and the stats reconcile job and the bucket rebuild recompute them from rides.
+ */
+@Component
+public class CounterWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterWriter.class);
+
+    private record Key(Class<?> type, String collection, Object id) {
+    }
+
+    private static final class Delta {
+        final Map<String, Number> inc = new LinkedHashMap<>();
+        boolean touch;
+        int attempts;
+
+        Delta add(Delta other) {
+            other.inc.forEach((field, value) -> inc.merge(field, value, CounterWriter::plus));
+            touch |= other.touch;
+            attempts = Math.max(attempts, other.attempts);
+            return this;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher events;
+    private final int maxPending;
+    private final int maxAttempts;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final DistributionSummary flushSize;
+    private Map<Key, Delta> pending = new HashMap<>();
+
+    public CounterWriter(MongoTemplate mongoTemplate, ApplicationEventPublisher events, MeterRegistry meterRegistry,
+            @Value("${rideshare.counters.flush-interval:50ms}") Duration flushInterval,
+            @Value("${rideshare.counters.max-pending:5000}") int maxPending,
+            @Value("${rideshare.counters.max-attempts:20}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.events = events;
+        this.maxPending = maxPending;
+        this.maxAttempts = maxAttempts;
+        this.flushSize = DistributionSummary.builder("rideshare.counters.flush.size")
+                .description("Counter documents upserted per flush")
+                .register(meterRegistry);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "counter-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds {@code deltas} to the document {@code id} of {@code collection} in the next flush,
+     * creating it if needed; {@code touch} also sets its updatedAt to the flush time. {@code type}
+     * is the mapped class the id is converted for, or null for plain documents.
+     */
+    public void increment(Class<?> type, String collection, Object id, Map<String, ? extends Number> deltas,
+            boolean touch) {
+        int size;
+        synchronized (this) {
+            Delta delta = pending.computeIfAbsent(new Key(type, collection, id), key -> new Delta());
+            deltas.forEach((field, value) -> delta.inc.merge(field, value, CounterWriter::plus));
+            delta.touch |= touch;
+            size = pending.size();
+        }
+        // a burst over distinct documents flushes early instead of waiting for the interval
+        if (size >= maxPending && flushQueued.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Writes everything handed over so far; returns once it (and any flush in progress) is done,
+     * with false if some of it could not be written and is waiting for a retry.
+     */
+    public boolean flush() {
+        synchronized (flushLock) {
+            Map<Key, Delta> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new HashMap<>();
+            }
+            flushQueued.set(false);
+            if (batch.isEmpty()) {
+                return true;
+            }
+            Map<String, Map<Object, Delta>> byCollection = new HashMap<>();
+            Map<String, Class<?>> types = new HashMap<>();
+            batch.forEach((key, delta) -> {
+                byCollection.computeIfAbsent(key.collection(), c -> new LinkedHashMap<>()).put(key.id(), delta);
+                if (key.type() != null) {
+                    types.put(key.collection(), key.type());
+                }
+            });
+
+            Map<String, Set<Object>> touched = new HashMap<>();
+            Map<Key, Delta> failed = new HashMap<>();
+            byCollection.forEach((collection, deltas) -> {
+                List<Object> ids = new ArrayList<>(deltas.keySet());
+                Set<Integer> rejected = write(collection, types.get(collection), deltas, ids);
+                Set<Object> written = new HashSet<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    if (rejected.contains(i)) {
+                        failed.put(new Key(types.get(collection), collection, ids.get(i)), deltas.get(ids.get(i)));
+                    } else {
+                        written.add(ids.get(i));
+                    }
+                }
+                if (!written.isEmpty()) {
+                    touched.put(collection, written);
+                }
+            });
+            flushSize.record(batch.size());
+            if (!failed.isEmpty()) {
+                retry(failed);
+            }
+            if (!touched.isEmpty()) {
+                events.publishEvent(new CountersFlushedEvent(touched));
+            }
+            return failed.isEmpty();
+        }
+    }
+
+    // indexes (into ids) of the upserts that were not written
+    private Set<Integer> write(String collection, Class<?> type, Map<Object, Delta> deltas, List<Object> ids) {
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type, collection);
+            ids.forEach(id -> bulk.upsert(new Query(Criteria.where("_id").is(id)), update(deltas.get(id))));
+            bulk.execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            // an unordered bulk applies every upsert that has no error of its own
+            logger.warn("⚠️ {} of {} counter updates to {} failed: {}", e.getErrors().size(), ids.size(),
+                    collection, e.getMessage());
+            Set<Integer> rejected = new HashSet<>();
+            e.getErrors().forEach(error -> rejected.add(error.getIndex()));
+            return rejected;
+        } catch (DataAccessException e) {
+            logger.warn("⚠️ Could not write {} counter updates to {}: {}", ids.size(), collection, e.getMessage());
+            Set<Integer> rejected = new HashSet<>();
+            for (int i = 0; i < ids.size(); i++) {
+                rejected.add(i);
+            }
+            return rejected;
+        }
+    }
+
+    // failed deltas are merged into the next flush until they run out of attempts
+    private void retry(Map<Key, Delta> failed) {
+        int dropped = 0;
+        synchronized (this) {
+            for (Map.Entry<Key, Delta> entry : failed.entrySet()) {
+                Delta delta = entry.getValue();
+                if (++delta.attempts >= maxAttempts) {
+                    dropped++;
+                } else {
+                    pending.merge(entry.getKey(), delta, Delta::add);
+                }
+            }
+        }
+        if (dropped > 0) {
+            // the rides themselves are written; reconcile/rebuild bring the counters back in line
+            logger.error("❌ Dropped {} counter updates after {} attempts", dropped, maxAttempts);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("❌ Counter flush failed: {}", e.getMessage());
+        }
+    }
+
+    private static Update update(Delta delta) {
+        Update update = new Update();
+        delta.inc.forEach(update::inc);
+        if (delta.touch) {
+            update.currentDate("updatedAt");
+        }
+        return update;
+    }
+
+    // counts stay int64, anything with a fraction is summed as a double
+    private static Number plus(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return a.longValue() + b.longValue();
+        }
+        return a.doubleValue() + b.doubleValue();
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Long || n instanceof Integer;
+    }
+
+    // Writes what is still pending before the context closes Mongo
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+}
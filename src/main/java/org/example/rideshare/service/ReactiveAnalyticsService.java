@@ -0,0 +1,94 @@
+package org.example.rideshare.service;
+
+import org.bson.Document;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideBucket;
+import org.example.rideshare.model.RideStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking twin of AnalyticsService ("reactive" profile): the same stats documents, bucket
+ * slots and result caches, read through ReactiveMongoTemplate. Empty Monos stand for the
+ * blocking service's null results.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveAnalyticsService {
+
+    private final ReactiveMongoTemplate reactiveTemplate;
+    private final RideBucketService rideBuckets;
+    private final AnalyticsCache cache;
+    private final int exportBatchSize;
+
+    public ReactiveAnalyticsService(ReactiveMongoTemplate reactiveTemplate, RideBucketService rideBuckets,
+            AnalyticsCache cache, @Value("${rideshare.export.batch-size:500}") int exportBatchSize) {
+        this.reactiveTemplate = reactiveTemplate;
+        this.rideBuckets = rideBuckets;
+        this.cache = cache;
+        this.exportBatchSize = exportBatchSize;
+    }
+
+    public Mono<Double> totalEarnings(String driver) {
+        return driverStats(driver).map(stats -> stats.map(RideStats::getTotalFare).orElse(0.0));
+    }
+
+    public Mono<List<Map<String, Object>>> getRidesPerDay(LocalDate from, LocalDate to, String zone,
+            RideBucketService.Granularity granularity) {
+        return Mono.defer(() -> {
+            ZoneId zoneId = RideBucketService.zone(zone);
+            AnalyticsCache.RidesPerDayKey key = new AnalyticsCache.RidesPerDayKey(from, to, zoneId, granularity);
+            return cache.ridesPerDayAsync(key, () -> reactiveTemplate
+                    .find(rideBuckets.slotsQuery(from, to, zoneId), RideBucket.class)
+                    .collectList()
+                    .map(slots -> RideBucketService.toPeriods(slots, zoneId, granularity)));
+        });
+    }
+
+    public Mono<Map<String, Object>> getDriverSummary(String driverId) {
+        return driverStats(driverId).flatMap(stats -> Mono.justOrEmpty(stats.map(AnalyticsService::driverSummary)));
+    }
+
+    public Mono<Map<String, Object>> getUserSpending(String userId) {
+        return cache.userStatsAsync(userId, () -> stats(userId, RideStats.USER_COLLECTION))
+                .flatMap(stats -> Mono.justOrEmpty(stats.map(AnalyticsService::userSpending)));
+    }
+
+    public Flux<Ride> streamDriverCompletedRides(String driverId) {
+        return reactiveTemplate.find(AnalyticsService.completedRides(Criteria.where("driverId").is(driverId),
+                exportBatchSize), Ride.class);
+    }
+
+    public Flux<Ride> streamUserCompletedRides(String userId) {
+        return reactiveTemplate.find(AnalyticsService.completedRides(Criteria.where("userId").is(userId),
+                exportBatchSize), Ride.class);
+    }
+
+    public Mono<List<Map<String, Object>>> getStatusSummary() {
+        return cache.statusSummaryAsync(() -> reactiveTemplate
+                .findOne(RideBucketService.statusDoc(), Document.class, RideBucketService.STATUS_COLLECTION)
+                .map(RideBucketService::toStatusRows)
+                .defaultIfEmpty(List.of()));
+    }
+
+    private Mono<Optional<RideStats>> driverStats(String driverId) {
+        return cache.driverStatsAsync(driverId, () -> stats(driverId, RideStats.DRIVER_COLLECTION));
+    }
+
+    private Mono<Optional<RideStats>> stats(String ownerId, String collection) {
+        return reactiveTemplate.findById(ownerId, RideStats.class, collection)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.dto.CursorPage;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking twin of RideService's search/filter reads ("reactive" profile). Same queries
+ * (RidePageQueries), same pages and cursors, but run on ReactiveMongoTemplate so a slow query
+ * holds no request thread while Mongo works.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveRideQueryService {
+
+    private final ReactiveMongoTemplate reactiveTemplate;
+    private final RidePageQueries pageQueries;
+    private final int exportBatchSize;
+
+    public ReactiveRideQueryService(ReactiveMongoTemplate reactiveTemplate, RidePageQueries pageQueries,
+            @Value("${rideshare.export.batch-size:500}") int exportBatchSize) {
+        this.reactiveTemplate = reactiveTemplate;
+        this.pageQueries = pageQueries;
+        this.exportBatchSize = exportBatchSize;
+    }
+
+    // Query building validates input, so do it per subscription: errors arrive as onError
+    public Mono<CursorPage<Ride>> searchRides(String text, String cursor, int limit) {
+        return Mono.defer(() -> fetch(pageQueries.search(text, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> filterByDistance(Double min, Double max, String cursor, int limit) {
+        return Mono.defer(() -> fetch(pageQueries.byDistance(min, max, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> filterByDateRange(LocalDate start, LocalDate end, String cursor, int limit) {
+        return Mono.defer(() -> fetch(pageQueries.byDateRange(start, end, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> sortByFare(String order, String cursor, int limit) {
+        return Mono.defer(() -> fetch(pageQueries.byFare(order, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> getRidesByUserId(String userId, String cursor, int limit) {
+        return Mono.defer(() -> fetch(pageQueries.byUser(userId, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> getRidesByUserAndStatus(String userId, RideStatus status, String cursor,
+            int limit) {
+        return Mono.defer(() -> fetch(pageQueries.byUserAndStatus(userId, status, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> getDriverActiveRides(String driverId, String cursor, int limit) {
+        return Mono.defer(() -> fetch(pageQueries.driverActive(driverId, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> filterByStatusAndKeyword(RideStatus status, String text, String cursor,
+            int limit) {
+        return Mono.defer(() -> fetch(pageQueries.byStatusAndKeyword(status, text, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> advancedSearch(String search, RideStatus status, String sort, String order,
+            String cursor, int limit) {
+        return Mono.defer(() -> fetch(pageQueries.advanced(search, status, sort, order, cursor, limit)));
+    }
+
+    public Mono<CursorPage<Ride>> getRidesByDate(LocalDate date, String cursor, int limit) {
+        return filterByDateRange(date, date, cursor, limit);
+    }
+
+    // 📤 Exports: the driver requests one cursor batch at a time as the client reads
+    public Flux<Ride> streamByDateRange(LocalDate start, LocalDate end) {
+        return Flux.defer(() -> stream(RidePageQueries.exportByDateRange(start, end)));
+    }
+
+    public Flux<Ride> streamByUserId(String userId) {
+        return stream(RidePageQueries.exportByUser(userId));
+    }
+
+    private Flux<Ride> stream(Query query) {
+        return reactiveTemplate.find(query.cursorBatchSize(exportBatchSize), Ride.class);
+    }
+
+    private Mono<CursorPage<Ride>> fetch(RidePageQueries.PageQuery page) {
+        Flux<Ride> rows = page.isRanked()
+                ? reactiveTemplate.aggregate(page.ranked(), "rides", Ride.class)
+                : reactiveTemplate.find(page.query(), Ride.class);
+        return rows.collectList().map(page::toPage);
+    }
+}
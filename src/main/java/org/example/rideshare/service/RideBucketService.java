@@ -0,0 +1,288 @@
+package org.example.rideshare.service;
+
+import org.bson.Document;
+import org.example.rideshare.event.RideEvent;
+import org.example.rideshare.event.RidesCreatedEvent;
+import org.example.rideshare.exception.BadRequestException;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideBucket;
+import org.example.rideshare.model.RideStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+
+/**
+ * Pre-aggregated ride activity: lifecycle counts per 15-minute UTC slot (ride_buckets) and the
+ * current number of rides in each status (ride_status_counts). Both are fed by ride events, so
+ * rides-per-period reads only the slots inside the requested range and the status summary is a
+ * single document, whatever the size of the rides collection. The increments go through
+ * {@link CounterWriter}, off the request thread and a flush interval behind the rides.
+ */
+@Service
+public class RideBucketService implements SmartInitializingSingleton {
+
+    public enum Granularity {
+        HOUR(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:00XXX")),
+        DAY(DateTimeFormatter.ISO_LOCAL_DATE);
+
+        private final DateTimeFormatter label;
+
+        Granularity(DateTimeFormatter label) {
+            this.label = label;
+        }
+
+        public static Granularity of(String value) {
+            try {
+                return valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("granularity must be hour or day");
+            }
+        }
+    }
+
+    static final String STATUS_COLLECTION = "ride_status_counts";
+
+    private static final Logger logger = LoggerFactory.getLogger(RideBucketService.class);
+
+    private static final String STATUS_DOC_ID = "all";
+    private static final int BULK_CHUNK = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final AnalyticsCache analyticsCache;
+    private final CounterWriter counters;
+    private final int maxRangeDays;
+    private final boolean buildIfEmpty;
+
+    public RideBucketService(MongoTemplate mongoTemplate, AnalyticsCache analyticsCache, CounterWriter counters,
+            @Value("${rideshare.buckets.max-range-days:400}") int maxRangeDays,
+            @Value("${rideshare.buckets.build-if-empty:true}") boolean buildIfEmpty) {
+        this.mongoTemplate = mongoTemplate;
+        this.analyticsCache = analyticsCache;
+        this.counters = counters;
+        this.maxRangeDays = maxRangeDays;
+        this.buildIfEmpty = buildIfEmpty;
+    }
+
+    // First start against an existing rides collection: backfill before traffic
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!buildIfEmpty) {
+            return;
+        }
+        try {
+            boolean missing = mongoTemplate.estimatedCount(RideBucket.class) == 0
+                    || !mongoTemplate.exists(statusDoc(), STATUS_COLLECTION);
+            if (missing && mongoTemplate.estimatedCount(Ride.class) > 0) {
+                logger.info("📊 Ride buckets are empty, building them from rides");
+                rebuild();
+            }
+        } catch (DataAccessException e) {
+            logger.error("❌ Could not build ride buckets: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    @Order(RideEvent.UPDATE_ORDER)
+    public void onRideEvent(RideEvent event) {
+        Ride ride = event.getRide();
+        switch (event.getType()) {
+            case CREATED -> {
+                bump(ride.getCreatedAt(), "created", 1);
+                shiftStatus(null, RideStatus.REQUESTED, 1);
+            }
+            case ACCEPTED -> {
+                bump(ride.getAcceptedAt(), "accepted", 1);
+                shiftStatus(RideStatus.REQUESTED, RideStatus.ACCEPTED, 1);
+            }
+            case COMPLETED -> {
+                bump(ride.getCompletedAt(), "completed", 1);
+                shiftStatus(RideStatus.ACCEPTED, RideStatus.COMPLETED, 1);
+            }
+        }
+    }
+
+    // one delta per touched slot instead of one per ride
+    @EventListener
+    @Order(RideEvent.UPDATE_ORDER)
+    public void onRidesCreated(RidesCreatedEvent event) {
+        Map<Date, Long> perSlot = new TreeMap<>();
+        for (Ride ride : event.getRides()) {
+            Date at = ride.getCreatedAt() != null ? ride.getCreatedAt() : new Date();
+            perSlot.merge(RideBucket.slotOf(at), 1L, Long::sum);
+        }
+        perSlot.forEach((slot, count) -> bump(slot, "created", count));
+        shiftStatus(null, RideStatus.REQUESTED, event.getRides().size());
+    }
+
+    private void bump(Date at, String counter, long count) {
+        Date slot = RideBucket.slotOf(at != null ? at : new Date());
+        counters.increment(RideBucket.class, RideBucket.COLLECTION, slot, Map.of(counter, count), false);
+    }
+
+    private void shiftStatus(RideStatus from, RideStatus to, long count) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        deltas.put(to.name(), count);
+        if (from != null) {
+            deltas.put(from.name(), -count);
+        }
+        counters.increment(null, STATUS_COLLECTION, STATUS_DOC_ID, deltas, false);
+    }
+
+    // the 15-minute slots covering from..to in zoneId, in time order
+    Query slotsQuery(LocalDate from, LocalDate to, ZoneId zoneId) {
+        if (to.isBefore(from)) {
+            throw new BadRequestException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new BadRequestException("Date range must be at most " + maxRangeDays + " days");
+        }
+        Instant start = from.atStartOfDay(zoneId).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(zoneId).toInstant();
+        return new Query(Criteria.where("_id").gte(Date.from(start)).lt(Date.from(end)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    /**
+     * Lifecycle counts per local hour or day of {@code zoneId} from the slots of
+     * {@link #slotsQuery}. Only periods with activity are returned; {@code count} is rides
+     * created in the period.
+     */
+    static List<Map<String, Object>> toPeriods(List<RideBucket> slots, ZoneId zoneId, Granularity granularity) {
+        // slots arrive in time order, so consecutive slots of one period are adjacent
+        Map<String, long[]> periods = new LinkedHashMap<>();
+        for (RideBucket bucket : slots) {
+            String period = granularity.label.format(bucket.getStart().toInstant().atZone(zoneId)
+                    .truncatedTo(granularity == Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS));
+            long[] counts = periods.computeIfAbsent(period, key -> new long[3]);
+            counts[0] += bucket.getCreated();
+            counts[1] += bucket.getAccepted();
+            counts[2] += bucket.getCompleted();
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(periods.size());
+        periods.forEach((period, counts) -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("_id", period);
+            row.put("count", counts[0]);
+            row.put("accepted", counts[1]);
+            row.put("completed", counts[2]);
+            result.add(row);
+        });
+        return result;
+    }
+
+    // the status document as [{_id: status, count}]; statuses with no rides are left out
+    static List<Map<String, Object>> toStatusRows(Document counts) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        if (counts == null) {
+            return result;
+        }
+        for (RideStatus status : RideStatus.values()) {
+            Object value = counts.get(status.name());
+            long count = value instanceof Number n ? n.longValue() : 0;
+            if (count > 0) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("_id", status.name());
+                row.put("count", count);
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Recomputes both stores from the rides collection (a full scan; meant for backfill and
+     * repair, not the request path). Rides without acceptedAt/completedAt only count as created.
+     */
+    public void rebuild() {
+        // events handed over before this call are already in the rides it recounts
+        counters.flush();
+        mongoTemplate.remove(new Query(), RideBucket.class);
+        backfill("createdAt", "created");
+        backfill("acceptedAt", "accepted");
+        backfill("completedAt", "completed");
+
+        Document counts = new Document("_id", STATUS_DOC_ID);
+        Aggregation byStatus = newAggregation(group("status").count().as("count"));
+        for (Document row : mongoTemplate.aggregate(byStatus, "rides", Document.class)) {
+            counts.put(row.getString("_id"), row.get("count"));
+        }
+        mongoTemplate.remove(statusDoc(), STATUS_COLLECTION);
+        mongoTemplate.insert(counts, STATUS_COLLECTION);
+        analyticsCache.invalidateAll();
+    }
+
+    private void backfill(String timestampField, String counter) {
+        Aggregation slots = newAggregation(
+                match(Criteria.where(timestampField).ne(null)),
+                context -> new Document("$group", new Document("_id",
+                        new Document("$dateTrunc", new Document("date", "$" + timestampField)
+                                .append("unit", "minute")
+                                .append("binSize", RideBucket.WIDTH.toMinutes())))
+                        .append("count", new Document("$sum", 1))))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        BulkOperations bulk = null;
+        int pending = 0;
+        try (Stream<Document> rows = mongoTemplate.aggregateStream(slots, "rides", Document.class)) {
+            for (Document row : (Iterable<Document>) rows::iterator) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RideBucket.class);
+                }
+                bulk.upsert(new Query(Criteria.where("_id").is(row.getDate("_id"))),
+                        new Update().inc(counter, ((Number) row.get("count")).longValue()));
+                if (++pending == BULK_CHUNK) {
+                    bulk.execute();
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+        }
+        if (bulk != null) {
+            bulk.execute();
+        }
+    }
+
+    static ZoneId zone(String zone) {
+        if (zone == null || zone.isBlank()) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            throw new BadRequestException("Unknown time zone " + zone);
+        }
+    }
+
+    static Query statusDoc() {
+        return new Query(Criteria.where("_id").is(STATUS_DOC_ID));
+    }
+}
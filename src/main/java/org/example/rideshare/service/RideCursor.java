@@ -0,0 +1,119 @@
+package org.example.rideshare.service;
+
+import org.bson.types.ObjectId;
+import org.example.rideshare.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque keyset cursor: the sort key and _id of the last row of a page. Lists are always
+ * sorted by (sortField, _id) in one direction, so the next page is "everything after this
+ * pair", which an index on (sortField, _id) answers without skipping rows.
+ */
+final class RideCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String field;
+    private final Sort.Direction direction;
+    private final Object value;
+    private final ObjectId id;
+
+    RideCursor(String field, Sort.Direction direction, Object value, String id) {
+        this(field, direction, value, new ObjectId(id));
+    }
+
+    private RideCursor(String field, Sort.Direction direction, Object value, ObjectId id) {
+        this.field = field;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    String encode() {
+        String raw = field + "|" + direction.name() + "|" + encodeValue(value) + "|" + id.toHexString();
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Object value() {
+        return value;
+    }
+
+    /** The sort key as a timestamp, for listings whose key is never null (createdAt of pending rides). */
+    Date dateValue() {
+        if (!(value instanceof Date date)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return date;
+    }
+
+    String id() {
+        return id.toHexString();
+    }
+
+    /** Returns null for a missing cursor (first page); rejects cursors from a different ordering. */
+    static RideCursor decode(String cursor, String field, Sort.Direction direction) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 4 || !parts[0].equals(field) || !parts[1].equals(direction.name())) {
+                throw new BadRequestException("Cursor does not belong to this listing");
+            }
+            return new RideCursor(field, direction, decodeValue(parts[2]), new ObjectId(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /** Rows strictly after this cursor in (field, _id) order; nulls sort first ascending, last descending. */
+    Criteria after() {
+        boolean asc = direction == Sort.Direction.ASC;
+        Criteria sameKeyLaterId = asc
+                ? Criteria.where(field).is(value).and("_id").gt(id)
+                : Criteria.where(field).is(value).and("_id").lt(id);
+
+        if (value == null) {
+            return asc
+                    ? new Criteria().orOperator(Criteria.where(field).ne(null), sameKeyLaterId)
+                    : sameKeyLaterId;
+        }
+        // comparison operators never match null, so descending lists pick nulls up explicitly
+        return asc
+                ? new Criteria().orOperator(Criteria.where(field).gt(value), sameKeyLaterId)
+                : new Criteria().orOperator(Criteria.where(field).lt(value), sameKeyLaterId,
+                        Criteria.where(field).is(null));
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "~";
+        }
+        if (value instanceof Date date) {
+            return "t" + date.getTime();
+        }
+        if (value instanceof Number number) {
+            return "n" + number.doubleValue();
+        }
+        throw new IllegalStateException("Unsupported cursor value " + value.getClass());
+    }
+
+    private static Object decodeValue(String encoded) {
+        if (encoded.equals("~")) {
+            return null;
+        }
+        if (encoded.startsWith("t")) {
+            return new Date(Long.parseLong(encoded.substring(1)));
+        }
+        if (encoded.startsWith("n")) {
+            return Double.parseDouble(encoded.substring(1));
+        }
+        throw new IllegalArgumentException("Unknown cursor value");
+    }
+}
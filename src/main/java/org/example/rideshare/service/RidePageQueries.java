@@ -0,0 +1,214 @@
+package org.example.rideshare.service;
+
+import org.bson.Document;
+import org.example.rideshare.dto.CursorPage;
+import org.example.rideshare.exception.BadRequestException;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The queries behind the ride list endpoints, shared by the blocking (RideService) and reactive
+ * (ReactiveRideQueryService) read paths so both run the same shapes against the same indexes.
+ * Each list is a keyset page on (sort key, _id); see RideQueryPlanTest for the index behind each.
+ */
+@Component
+class RidePageQueries {
+
+    private static final int MAX_SEARCH_LENGTH = 200;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "fare", "distanceKm");
+
+    /**
+     * One page to fetch: a find ({@code query}) or, for relevance-ranked text search, an
+     * aggregation ({@code ranked}). Either way size + 1 rows come back, ordered by (sortField, _id).
+     */
+    record PageQuery(Query query, Aggregation ranked, String sortField, Sort.Direction direction, int size) {
+
+        boolean isRanked() {
+            return ranked != null;
+        }
+
+        CursorPage<Ride> toPage(List<Ride> rows) {
+            return RidePageQueries.toPage(rows, size,
+                    last -> new RideCursor(sortField, direction, sortValue(last, sortField), last.getId()));
+        }
+    }
+
+    private final int maxPageSize;
+
+    RidePageQueries(@Value("${rideshare.pagination.max-page-size:100}") int maxPageSize) {
+        this.maxPageSize = maxPageSize;
+    }
+
+    PageQuery driverRides(String driverId, String cursor, int limit) {
+        return keyset(new Query(Criteria.where("driverId").is(driverId)), "createdAt", Sort.Direction.DESC,
+                cursor, limit);
+    }
+
+    PageQuery search(String text, String cursor, int limit) {
+        return ranked(text, null, cursor, limit);
+    }
+
+    PageQuery byDistance(Double min, Double max, String cursor, int limit) {
+        return keyset(new Query(Criteria.where("distanceKm").gte(min).lte(max)), "distanceKm", Sort.Direction.ASC,
+                cursor, limit);
+    }
+
+    PageQuery byDateRange(LocalDate start, LocalDate end, String cursor, int limit) {
+        return keyset(new Query(createdBetween(start, end)), "createdAt", Sort.Direction.ASC, cursor, limit);
+    }
+
+    PageQuery byFare(String order, String cursor, int limit) {
+        return keyset(new Query(), "fare", direction(order), cursor, limit);
+    }
+
+    PageQuery byUser(String userId, String cursor, int limit) {
+        return keyset(new Query(Criteria.where("userId").is(userId)), "createdAt", Sort.Direction.DESC,
+                cursor, limit);
+    }
+
+    PageQuery byUserAndStatus(String userId, RideStatus status, String cursor, int limit) {
+        return keyset(new Query(Criteria.where("userId").is(userId).and("status").is(status)), "createdAt",
+                Sort.Direction.DESC, cursor, limit);
+    }
+
+    PageQuery driverActive(String driverId, String cursor, int limit) {
+        return keyset(new Query(Criteria.where("driverId").is(driverId).and("status").is(RideStatus.ACCEPTED)),
+                "createdAt", Sort.Direction.DESC, cursor, limit);
+    }
+
+    PageQuery byStatusAndKeyword(RideStatus status, String text, String cursor, int limit) {
+        return ranked(text, status, cursor, limit);
+    }
+
+    // Ranked by relevance when searching without an explicit sort, otherwise ordered by one of
+    // the indexed sort keys
+    PageQuery advanced(String search, RideStatus status, String sort, String order, String cursor, int limit) {
+        boolean keyword = search != null && !search.isBlank();
+        boolean explicitSort = sort != null && !sort.isEmpty();
+        if (keyword && !explicitSort) {
+            return ranked(search, status, cursor, limit);
+        }
+
+        String sortField = explicitSort ? sort : "createdAt";
+        if (!SORTABLE_FIELDS.contains(sortField)) {
+            throw new BadRequestException("sort must be one of " + SORTABLE_FIELDS);
+        }
+
+        Query query = new Query();
+        if (keyword) {
+            query.addCriteria(keywordCriteria(search));
+        }
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        return keyset(query, sortField, direction(order), cursor, limit);
+    }
+
+    // 📤 Unpaged export orders; the caller sets its own cursor batch size
+    static Query exportByDateRange(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new BadRequestException("end must not be before start");
+        }
+        return new Query(createdBetween(start, end)).with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"));
+    }
+
+    static Query exportByUser(String userId) {
+        return new Query(Criteria.where("userId").is(userId)).with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"));
+    }
+
+    // Keyset page: sorted by (sortField, _id) and resumed after the cursor, so page N reads the
+    // same number of index entries as page 1. Fetches one extra row to know whether more follow.
+    PageQuery keyset(Query query, String sortField, Sort.Direction direction, String cursor, int limit) {
+        int size = pageSize(limit);
+        RideCursor after = RideCursor.decode(cursor, sortField, direction);
+        if (after != null) {
+            query.addCriteria(after.after());
+        }
+        query.with(Sort.by(direction, sortField, "_id")).limit(size + 1);
+        return new PageQuery(query, null, sortField, direction, size);
+    }
+
+    // Relevance-ranked keyset page over the text index, ordered by (textScore, _id) descending.
+    // The score can only be filtered after $text has run, so this is an aggregation.
+    private PageQuery ranked(String text, RideStatus status, String cursor, int limit) {
+        int size = pageSize(limit);
+        RideCursor after = RideCursor.decode(cursor, "score", Sort.Direction.DESC);
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(Aggregation.match(keywordCriteria(text)));
+        if (status != null) {
+            stages.add(Aggregation.match(Criteria.where("status").is(status)));
+        }
+        stages.add(context -> new Document("$addFields",
+                new Document("score", new Document("$meta", "textScore"))));
+        if (after != null) {
+            stages.add(Aggregation.match(after.after()));
+        }
+        stages.add(Aggregation.sort(Sort.by(Sort.Direction.DESC, "score", "_id")));
+        stages.add(Aggregation.limit(size + 1));
+        return new PageQuery(null, Aggregation.newAggregation(stages), "score", Sort.Direction.DESC, size);
+    }
+
+    static <T> CursorPage<T> toPage(List<T> rows, int size, Function<T, RideCursor> cursorAfter) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorAfter.apply(items.get(size - 1)).encode());
+    }
+
+    private static Object sortValue(Ride ride, String sortField) {
+        return switch (sortField) {
+            case "createdAt" -> ride.getCreatedAt();
+            case "fare" -> ride.getFare();
+            case "distanceKm" -> ride.getDistanceKm();
+            case "score" -> ride.getScore();
+            default -> throw new IllegalArgumentException("Unsupported sort field " + sortField);
+        };
+    }
+
+    private static Criteria createdBetween(LocalDate start, LocalDate end) {
+        Date startDate = Date.from(start.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date endDate = Date.from(end.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return Criteria.where("createdAt").gte(startDate).lt(endDate);
+    }
+
+    // Words are matched against the rides text index (stemmed, case-insensitive) rather than
+    // fed into a regex
+    private static TextCriteria keywordCriteria(String text) {
+        if (text == null || text.isBlank()) {
+            throw new BadRequestException("Search text is required");
+        }
+        if (text.length() > MAX_SEARCH_LENGTH) {
+            throw new BadRequestException("Search text must be at most " + MAX_SEARCH_LENGTH + " characters");
+        }
+        return TextCriteria.forDefaultLanguage().matching(text);
+    }
+
+    private int pageSize(int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be at least 1");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private static Sort.Direction direction(String order) {
+        return "asc".equalsIgnoreCase(order) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
+}
@@ -1,221 +1,419 @@
 package org.example.rideshare.service;
 
+import org.example.rideshare.dispatch.PendingRideIndex;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.rideshare.dto.BatchRideResult;
 import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.dto.CursorPage;
+import org.example.rideshare.dto.NearbyRideResponse;
+import org.example.rideshare.dto.RideResponse;
+import org.example.rideshare.event.RideEvent;
+import org.example.rideshare.event.RidesCreatedEvent;
 import org.example.rideshare.exception.BadRequestException;
 import org.example.rideshare.exception.NotFoundException;
+import org.example.rideshare.security.AuthenticatedUser;
 import org.example.rideshare.model.Ride;
 import org.example.rideshare.model.RideStatus;
-import org.example.rideshare.model.User;
 import org.example.rideshare.repository.RideRepository;
-import org.example.rideshare.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import java.util.ArrayList;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import java.time.LocalDate;
-import java.time.ZoneId;
 
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.PageRequest;
 
+@Timed(value = "rideshare.service", histogram = true)
 @Service
 public class RideService {
 
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
     private final RideRepository rideRepository;
-    private final UserRepository userRepository;
     private final MongoTemplate mongoTemplate;
-
-    public RideService(RideRepository rideRepository, UserRepository userRepository, MongoTemplate mongoTemplate) {
+    private final RidePageQueries pageQueries;
+    private final AnalyticsReads analyticsReads;
+    private final PendingRideIndex pendingRideIndex;
+    private final RideWriteBatcher writeBatcher;
+    private final ApplicationEventPublisher events;
+    private final int maxPendingPageSize;
+    private final double maxNearbyRadiusKm;
+    private final String defaultNearbySource;
+    private final int exportBatchSize;
+    private final int maxBatchSize;
+    private final Validator validator;
+
+    public RideService(RideRepository rideRepository, MongoTemplate mongoTemplate, RidePageQueries pageQueries,
+            AnalyticsReads analyticsReads, PendingRideIndex pendingRideIndex, RideWriteBatcher writeBatcher,
+            ApplicationEventPublisher events,
+            @Value("${rideshare.dispatch.max-page-size:100}") int maxPendingPageSize,
+            @Value("${rideshare.dispatch.max-radius-km:50}") double maxNearbyRadiusKm,
+            @Value("${rideshare.dispatch.nearby-source:memory}") String defaultNearbySource,
+            @Value("${rideshare.export.batch-size:500}") int exportBatchSize,
+            @Value("${rideshare.rides.max-batch-size:500}") int maxBatchSize,
+            Validator validator) {
         this.rideRepository = rideRepository;
-        this.userRepository = userRepository;
         this.mongoTemplate = mongoTemplate;
+        this.pageQueries = pageQueries;
+        this.analyticsReads = analyticsReads;
+        this.pendingRideIndex = pendingRideIndex;
+        this.writeBatcher = writeBatcher;
+        this.events = events;
+        this.maxPendingPageSize = maxPendingPageSize;
+        this.maxNearbyRadiusKm = maxNearbyRadiusKm;
+        this.defaultNearbySource = defaultNearbySource;
+        this.exportBatchSize = exportBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.validator = validator;
     }
 
     // 🚕 Request a ride (Passenger)
-    public Ride requestRide(CreateRideRequest request, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new NotFoundException("User not found"));
+    public Ride requestRide(CreateRideRequest request, AuthenticatedUser user) {
+        if (!"ROLE_USER".equals(user.getRole())) {
+            throw new AccessDeniedException("Only passengers (ROLE_USER) can request rides");
+        }
 
+        Ride ride = newRide(request, user);
+        Ride saved = writeBatcher.isEnabled() ? writeBatcher.insert(ride) : rideRepository.save(ride);
+        events.publishEvent(new RideEvent(RideEvent.Type.CREATED, saved));
+        return saved;
+    }
+
+    // 🚕 Request many rides in one call (partner integrations). Items are validated one by one,
+    // valid ones go to Mongo in a single unordered bulk insert, and every item gets a result.
+    public BatchRideResult requestRides(List<CreateRideRequest> requests, AuthenticatedUser user) {
         if (!"ROLE_USER".equals(user.getRole())) {
             throw new AccessDeniedException("Only passengers (ROLE_USER) can request rides");
         }
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("At least one ride request is required");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new BadRequestException("At most " + maxBatchSize + " rides per batch");
+        }
+        long started = System.nanoTime();
+
+        BatchRideResult.Item[] results = new BatchRideResult.Item[requests.size()];
+        List<Ride> rides = new ArrayList<>(requests.size());
+        List<Integer> positions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CreateRideRequest request = requests.get(i);
+            String error = validationError(request);
+            if (error != null) {
+                results[i] = BatchRideResult.Item.invalid(i, error);
+                continue;
+            }
+            try {
+                Ride ride = newRide(request, user);
+                // ids are assigned up front so unordered bulk errors can be mapped back to items
+                ride.setId(new ObjectId().toHexString());
+                rides.add(ride);
+                positions.add(i);
+            } catch (BadRequestException e) {
+                results[i] = BatchRideResult.Item.invalid(i, e.getMessage());
+            }
+        }
+
+        Set<Integer> failedOps = new HashSet<>();
+        if (!rides.isEmpty()) {
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ride.class).insert(rides).execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    failedOps.add(error.getIndex());
+                    int position = positions.get(error.getIndex());
+                    results[position] = BatchRideResult.Item.failed(position, error.getMessage());
+                }
+            }
+        }
+
+        List<Ride> inserted = new ArrayList<>(rides.size());
+        for (int op = 0; op < rides.size(); op++) {
+            if (!failedOps.contains(op)) {
+                Ride ride = rides.get(op);
+                inserted.add(ride);
+                results[positions.get(op)] = BatchRideResult.Item.created(positions.get(op),
+                        RideResponse.fromEntity(ride));
+            }
+        }
+        if (!inserted.isEmpty()) {
+            events.publishEvent(new RidesCreatedEvent(inserted));
+        }
+        return new BatchRideResult(Arrays.asList(results), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private String validationError(CreateRideRequest request) {
+        if (request == null) {
+            return "Ride request is required";
+        }
+        Set<ConstraintViolation<CreateRideRequest>> violations = validator.validate(request);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
 
+    private Ride newRide(CreateRideRequest request, AuthenticatedUser user) {
         Ride ride = new Ride();
         ride.setUserId(user.getId());
         ride.setDriverId(null);
         ride.setPickupLocation(request.getPickupLocation());
         ride.setDropLocation(request.getDropLocation());
+        ride.setPickupPoint(toPoint(request.getPickupLat(), request.getPickupLon(), "pickup"));
+        ride.setDropPoint(toPoint(request.getDropLat(), request.getDropLon(), "drop"));
         ride.setStatus(RideStatus.REQUESTED);
         ride.setCreatedAt(new Date());
+        return ride;
+    }
 
-        return rideRepository.save(ride);
+    // 🚗 Oldest pending ride requests (for drivers), served from the in-memory dispatch index
+    public CursorPage<RideResponse> getPendingRides(String cursor, int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be at least 1");
+        }
+        int size = Math.min(limit, maxPendingPageSize);
+        RideCursor after = RideCursor.decode(cursor, "createdAt", Sort.Direction.ASC);
+        List<RideResponse> rides = after == null
+                ? pendingRideIndex.oldest(size + 1)
+                : pendingRideIndex.oldestAfter(after.dateValue().getTime(), after.id(), size + 1);
+
+        return RidePageQueries.toPage(rides, size,
+                last -> new RideCursor("createdAt", Sort.Direction.ASC, last.getCreatedAt(), last.getId()));
     }
 
-    // 🚗 Get all pending ride requests (for drivers)
-    public List<Ride> getPendingRides() {
-        return rideRepository.findByStatus(RideStatus.REQUESTED);
+    // 🚗 Pending rides nearest to a driver, from the in-memory grid or a Mongo $geoNear query
+    public List<NearbyRideResponse> getNearbyPendingRides(double lat, double lon, double radiusKm, int limit,
+            String source) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new BadRequestException("lat must be between -90 and 90 and lon between -180 and 180");
+        }
+        if (radiusKm <= 0 || radiusKm > maxNearbyRadiusKm) {
+            throw new BadRequestException("radiusKm must be greater than 0 and at most " + maxNearbyRadiusKm);
+        }
+        if (limit < 1) {
+            throw new BadRequestException("limit must be at least 1");
+        }
+        int k = Math.min(limit, maxPendingPageSize);
+        String from = source != null ? source : defaultNearbySource;
+
+        if ("memory".equalsIgnoreCase(from)) {
+            return pendingRideIndex.nearest(lat, lon, radiusKm, k);
+        }
+        if ("mongo".equalsIgnoreCase(from)) {
+            NearQuery near = NearQuery.near(new GeoJsonPoint(lon, lat))
+                    .spherical(true)
+                    .maxDistance(new Distance(radiusKm, Metrics.KILOMETERS))
+                    .query(new Query(Criteria.where("status").is(RideStatus.REQUESTED)).limit(k));
+            return mongoTemplate.geoNear(near, Ride.class).getContent().stream()
+                    .map(result -> new NearbyRideResponse(
+                            RideResponse.fromEntity(result.getContent()),
+                            result.getDistance().in(Metrics.KILOMETERS).getValue()))
+                    .toList();
+        }
+        throw new BadRequestException("source must be memory or mongo");
     }
 
-    // ✔ Driver accepts a ride
-    public Ride acceptRide(String rideId, String driverUsername) {
-        User driver = userRepository.findByUsername(driverUsername)
-                .orElseThrow(() -> new NotFoundException("Driver not found"));
+    private static GeoJsonPoint toPoint(Double lat, Double lon, String name) {
+        if (lat == null && lon == null) {
+            return null;
+        }
+        if (lat == null || lon == null) {
+            throw new BadRequestException(name + "Lat and " + name + "Lon must be given together");
+        }
+        return new GeoJsonPoint(lon, lat);
+    }
 
+    // ✔ Driver accepts a ride
+    public Ride acceptRide(String rideId, AuthenticatedUser driver) {
         if (!"ROLE_DRIVER".equals(driver.getRole())) {
             throw new AccessDeniedException("Only drivers (ROLE_DRIVER) can accept rides");
         }
 
-        Ride ride = rideRepository.findById(rideId)
-                .orElseThrow(() -> new NotFoundException("Ride not found"));
-
-        if (ride.getStatus() != RideStatus.REQUESTED) {
-            throw new BadRequestException("Ride is not in REQUESTED status");
+        // Status precondition lives in the filter, so only one of several racing drivers can match
+        Query query = new Query(Criteria.where("id").is(rideId).and("status").is(RideStatus.REQUESTED));
+        Update update = new Update()
+                .set("driverId", driver.getId())
+                .set("status", RideStatus.ACCEPTED)
+                .set("acceptedAt", new Date());
+
+        Ride ride = writeBatcher.isEnabled()
+                ? writeBatcher.transition(rideId, query, update, "acceptTxn", Ride::getAcceptTxn)
+                : mongoTemplate.findAndModify(query, update, RETURN_NEW, Ride.class);
+        if (ride == null) {
+            throw transitionFailure(rideId, RideStatus.REQUESTED, "Ride is not in REQUESTED status", null);
         }
-
-        ride.setDriverId(driver.getId());
-        ride.setStatus(RideStatus.ACCEPTED);
-
-        return rideRepository.save(ride);
+        events.publishEvent(new RideEvent(RideEvent.Type.ACCEPTED, ride));
+        return ride;
     }
 
     // ✔ Complete a ride (Driver or User)
-    public Ride completeRide(String rideId, String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new NotFoundException("User not found"));
-
-        Ride ride = rideRepository.findById(rideId)
-                .orElseThrow(() -> new NotFoundException("Ride not found"));
-
-        if (ride.getStatus() != RideStatus.ACCEPTED) {
-            throw new BadRequestException("Ride must be in ACCEPTED status to complete");
+    public Ride completeRide(String rideId, AuthenticatedUser user) {
+        // Only the passenger or the assigned driver of an ACCEPTED ride can match this filter
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("id").is(rideId).and("status").is(RideStatus.ACCEPTED),
+                new Criteria().orOperator(
+                        Criteria.where("userId").is(user.getId()),
+                        Criteria.where("driverId").is(user.getId()))));
+        Update update = new Update().set("status", RideStatus.COMPLETED).set("completedAt", new Date());
+
+        Ride ride = writeBatcher.isEnabled()
+                ? writeBatcher.transition(rideId, query, update, "completeTxn", Ride::getCompleteTxn)
+                : mongoTemplate.findAndModify(query, update, RETURN_NEW, Ride.class);
+        if (ride == null) {
+            throw transitionFailure(rideId, RideStatus.ACCEPTED, "Ride must be in ACCEPTED status to complete",
+                    "You are not authorized to complete this ride");
         }
+        events.publishEvent(new RideEvent(RideEvent.Type.COMPLETED, ride));
+        return ride;
+    }
 
-        // Check if user is the passenger or driver of this ride
-        boolean isPassenger = user.getId().equals(ride.getUserId());
-        boolean isDriver = user.getId().equals(ride.getDriverId());
-
-        if (!isPassenger && !isDriver) {
-            throw new AccessDeniedException("You are not authorized to complete this ride");
+    // A conditional update matched nothing: read the ride once to report why (failure path only)
+    private RuntimeException transitionFailure(String rideId, RideStatus expected,
+            String statusMessage, String deniedMessage) {
+        Ride current = mongoTemplate.findById(rideId, Ride.class);
+        if (current == null) {
+            return new NotFoundException("Ride not found");
         }
-
-        ride.setStatus(RideStatus.COMPLETED);
-        return rideRepository.save(ride);
+        if (current.getStatus() != expected || deniedMessage == null) {
+            return new BadRequestException(statusMessage);
+        }
+        return new AccessDeniedException(deniedMessage);
     }
 
-    // ✔ Get user's own rides
-    public List<Ride> getUserRides(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new NotFoundException("User not found"));
-
-        return rideRepository.findByUserId(user.getId());
+    // ✔ Get user's own rides (newest first)
+    public CursorPage<Ride> getUserRides(AuthenticatedUser user, String cursor, int limit) {
+        return getRidesByUserId(user.getId(), cursor, limit);
     }
 
-    // ✔ Get driver's rides
-    public List<Ride> getDriverRides(String username) {
-        User driver = userRepository.findByUsername(username)
-                .orElseThrow(() -> new NotFoundException("Driver not found"));
+    // ✔ Same page as getUserRides, projected to the RideResponse fields and mapped straight
+    // from the raw documents (no Ride entity per row)
+    public CursorPage<RideResponse> getUserRideResponses(AuthenticatedUser user, String cursor, int limit) {
+        RidePageQueries.PageQuery page = pageQueries.byUser(user.getId(), cursor, limit);
+        page.query().fields().include(RideResponse.FIELDS);
+        List<RideResponse> rides = new ArrayList<>(page.size() + 1);
+        for (Document doc : mongoTemplate.find(page.query(), Document.class, "rides")) {
+            rides.add(RideResponse.fromDocument(doc));
+        }
+        return RidePageQueries.toPage(rides, page.size(),
+                last -> new RideCursor("createdAt", Sort.Direction.DESC, last.getCreatedAt(), last.getId()));
+    }
 
-        return rideRepository.findByDriverId(driver.getId());
+    // ✔ Get driver's rides (newest first)
+    public CursorPage<Ride> getDriverRides(AuthenticatedUser driver, String cursor, int limit) {
+        return fetch(pageQueries.driverRides(driver.getId(), cursor, limit));
     }
 
-    // 1. Search rides by pickup or drop location
-    public List<Ride> searchRides(String text) {
-        Query query = new Query();
-        query.addCriteria(new Criteria().orOperator(
-                Criteria.where("pickupLocation").regex(text, "i"),
-                Criteria.where("dropLocation").regex(text, "i")));
-        return mongoTemplate.find(query, Ride.class);
+    // 1. Search rides by pickup or drop location (text index, best matches first)
+    public CursorPage<Ride> searchRides(String text, String cursor, int limit) {
+        return filter(pageQueries.search(text, cursor, limit));
     }
 
     // 2. Filter rides by distance range
-    public List<Ride> filterByDistance(Double min, Double max) {
-        Query query = new Query();
-        query.addCriteria(Criteria.where("distanceKm").gte(min).lte(max));
-        return mongoTemplate.find(query, Ride.class);
+    public CursorPage<Ride> filterByDistance(Double min, Double max, String cursor, int limit) {
+        return filter(pageQueries.byDistance(min, max, cursor, limit));
     }
 
     // 3. Filter rides by date range
-    public List<Ride> filterByDateRange(LocalDate start, LocalDate end) {
-        Date startDate = Date.from(start.atStartOfDay(ZoneId.systemDefault()).toInstant());
-        Date endDate = Date.from(end.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
-
-        Query query = new Query();
-        query.addCriteria(Criteria.where("createdAt").gte(startDate).lt(endDate));
-        return mongoTemplate.find(query, Ride.class);
+    public CursorPage<Ride> filterByDateRange(LocalDate start, LocalDate end, String cursor, int limit) {
+        return filter(pageQueries.byDateRange(start, end, cursor, limit));
     }
 
     // 4. Sort rides by fare
-    public List<Ride> sortByFare(String order) {
-        Query query = new Query();
-        query.with(Sort.by("asc".equalsIgnoreCase(order) ? Sort.Direction.ASC : Sort.Direction.DESC, "fare"));
-        return mongoTemplate.find(query, Ride.class);
+    public CursorPage<Ride> sortByFare(String order, String cursor, int limit) {
+        return filter(pageQueries.byFare(order, cursor, limit));
     }
 
     // 5. Get rides for user (Already implemented as getUserRides, but adding by ID
     // version)
-    public List<Ride> getRidesByUserId(String userId) {
-        return rideRepository.findByUserId(userId);
+    public CursorPage<Ride> getRidesByUserId(String userId, String cursor, int limit) {
+        return fetch(pageQueries.byUser(userId, cursor, limit));
     }
 
     // 6. Get rides for user by status
-    public List<Ride> getRidesByUserAndStatus(String userId, RideStatus status) {
-        Query query = new Query();
-        query.addCriteria(Criteria.where("userId").is(userId).and("status").is(status));
-        return mongoTemplate.find(query, Ride.class);
+    public CursorPage<Ride> getRidesByUserAndStatus(String userId, RideStatus status, String cursor, int limit) {
+        return fetch(pageQueries.byUserAndStatus(userId, status, cursor, limit));
     }
 
     // 7. Get driver's active rides
-    public List<Ride> getDriverActiveRides(String driverId) {
-        Query query = new Query();
-        query.addCriteria(Criteria.where("driverId").is(driverId).and("status").is(RideStatus.ACCEPTED));
-        return mongoTemplate.find(query, Ride.class);
+    public CursorPage<Ride> getDriverActiveRides(String driverId, String cursor, int limit) {
+        return fetch(pageQueries.driverActive(driverId, cursor, limit));
     }
 
     // 8. Filter rides by status + keyword
-    public List<Ride> filterByStatusAndKeyword(RideStatus status, String text) {
-        Query query = new Query();
-        Criteria statusCriteria = Criteria.where("status").is(status);
-        Criteria textCriteria = new Criteria().orOperator(
-                Criteria.where("pickupLocation").regex(text, "i"),
-                Criteria.where("dropLocation").regex(text, "i"));
-        query.addCriteria(new Criteria().andOperator(statusCriteria, textCriteria));
-        return mongoTemplate.find(query, Ride.class);
+    public CursorPage<Ride> filterByStatusAndKeyword(RideStatus status, String text, String cursor, int limit) {
+        return filter(pageQueries.byStatusAndKeyword(status, text, cursor, limit));
     }
 
-    // 9. Advanced search
-    public List<Ride> advancedSearch(String search, RideStatus status, String sort, String order, int page, int size) {
-        Query query = new Query();
+    // 9. Advanced search: ranked by relevance when searching without an explicit sort,
+    // otherwise ordered by one of the indexed sort keys
+    public CursorPage<Ride> advancedSearch(String search, RideStatus status, String sort, String order,
+            String cursor, int limit) {
+        return filter(pageQueries.advanced(search, status, sort, order, cursor, limit));
+    }
 
-        List<Criteria> criteriaList = new ArrayList<>();
-        if (search != null && !search.isEmpty()) {
-            criteriaList.add(new Criteria().orOperator(
-                    Criteria.where("pickupLocation").regex(search, "i"),
-                    Criteria.where("dropLocation").regex(search, "i")));
-        }
-        if (status != null) {
-            criteriaList.add(Criteria.where("status").is(status));
-        }
+    // 14. Rides by specific date
+    public CursorPage<Ride> getRidesByDate(LocalDate date, String cursor, int limit) {
+        return filterByDateRange(date, date, cursor, limit);
+    }
 
-        if (!criteriaList.isEmpty()) {
-            query.addCriteria(new Criteria().andOperator(criteriaList.toArray(new Criteria[0])));
-        }
+    // 📤 Streaming exports: rides are pulled from a Mongo cursor one batch at a time, so memory stays
+    // flat however many rows match. Arguments are checked now; the cursor is opened when the supplier
+    // is called, and callers must close the stream (it holds the server-side cursor).
+    // Exports read with the analytics read preference, without a time budget.
+    public Supplier<Stream<Ride>> streamByDateRange(LocalDate start, LocalDate end) {
+        Query query = RidePageQueries.exportByDateRange(start, end);
+        return () -> stream(query);
+    }
 
-        if (sort != null && !sort.isEmpty()) {
-            query.with(Sort.by("asc".equalsIgnoreCase(order) ? Sort.Direction.ASC : Sort.Direction.DESC, sort));
-        }
+    public Supplier<Stream<Ride>> streamByUserId(String userId) {
+        Query query = RidePageQueries.exportByUser(userId);
+        return () -> stream(query);
+    }
 
-        query.with(PageRequest.of(page, size));
-        return mongoTemplate.find(query, Ride.class);
+    private Stream<Ride> stream(Query query) {
+        return analyticsReads.template().stream(query.cursorBatchSize(exportBatchSize), Ride.class);
     }
 
-    // 14. Rides by specific date
-    public List<Ride> getRidesByDate(LocalDate date) {
-        return filterByDateRange(date, date);
+    private CursorPage<Ride> fetch(RidePageQueries.PageQuery page) {
+        List<Ride> rows = page.isRanked()
+                ? mongoTemplate.aggregate(page.ranked(), "rides", Ride.class).getMappedResults()
+                : mongoTemplate.find(page.query(), Ride.class);
+        return page.toPage(rows);
+    }
+
+    // Cross-user filters and searches: analytics read preference and the ride-filter time budget.
+    // A keyset page has no meaningful partial or cached form, so an exhausted budget is a 503.
+    private CursorPage<Ride> filter(RidePageQueries.PageQuery page) {
+        try {
+            List<Ride> rows = page.isRanked()
+                    ? analyticsReads.aggregate(AnalyticsReads.Budget.RIDE_FILTER, page.ranked(), "rides", Ride.class)
+                    : analyticsReads.find(AnalyticsReads.Budget.RIDE_FILTER, page.query(), Ride.class);
+            return page.toPage(rows);
+        } catch (DataAccessException e) {
+            return analyticsReads.degrade(AnalyticsReads.Budget.RIDE_FILTER, e, () -> null);
+        }
     }
 }
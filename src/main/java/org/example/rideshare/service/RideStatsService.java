@@ -0,0 +1,294 @@
+package org.example.rideshare.service;
+
+import org.bson.Document;
+import org.example.rideshare.dto.StatsReconcileReport;
+import org.example.rideshare.event.RideEvent;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStats;
+import org.example.rideshare.model.RideStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+
+/**
+ * Per-driver and per-passenger totals over completed rides, so the earnings/summary/spending
+ * analytics are a single _id lookup instead of a $group over the whole ride history.
+ * Completions are folded in with $inc through {@link CounterWriter}, off the request thread and a
+ * flush interval behind the rides; {@link #reconcile} recomputes everything from the rides
+ * collection and reports (and optionally repairs) any drift.
+ *
+ * While a reconcile runs, completions are held back instead of handed to the writer, so the
+ * stored totals stand still: everything handed over before it started is flushed, totals are
+ * recounted over rides completed before that cutoff, and the held completions are applied on top
+ * afterwards (those before the cutoff only where the recount did not already overwrite them).
+ */
+@Service
+public class RideStatsService implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideStatsService.class);
+
+    private static final int SAMPLE_IDS = 20;
+
+    // counts rides that have a numeric distanceKm (missing and null sort below null in $gt)
+    private static final AggregationExpression HAS_DISTANCE = context -> new Document("$cond",
+            Arrays.asList(new Document("$gt", Arrays.asList("$distanceKm", null)), 1, 0));
+
+    private final MongoTemplate mongoTemplate;
+    private final AnalyticsCache analyticsCache;
+    private final CounterWriter counters;
+    private final boolean buildIfEmpty;
+
+    private final Object reconcileLock = new Object();
+    // completions that arrived during a reconcile; null when none is running
+    private List<Ride> held;
+
+    public RideStatsService(MongoTemplate mongoTemplate, AnalyticsCache analyticsCache, CounterWriter counters,
+            @Value("${rideshare.stats.build-if-empty:true}") boolean buildIfEmpty) {
+        this.mongoTemplate = mongoTemplate;
+        this.analyticsCache = analyticsCache;
+        this.counters = counters;
+        this.buildIfEmpty = buildIfEmpty;
+    }
+
+    // First start against an existing rides collection: backfill the counters before traffic
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!buildIfEmpty) {
+            return;
+        }
+        try {
+            boolean empty = mongoTemplate.estimatedCount(RideStats.DRIVER_COLLECTION) == 0
+                    && mongoTemplate.estimatedCount(RideStats.USER_COLLECTION) == 0;
+            if (empty && mongoTemplate.exists(
+                    new Query(Criteria.where("status").is(RideStatus.COMPLETED)), Ride.class)) {
+                logger.info("📊 Ride stats collections are empty, building them from rides");
+                reconcile(true);
+            }
+        } catch (DataAccessException e) {
+            logger.error("❌ Could not build ride stats: {}", e.getMessage());
+        }
+    }
+
+    // completeRide only publishes once per ride (its findAndModify is conditional on ACCEPTED),
+    // so each completion is counted exactly once
+    @EventListener
+    @Order(RideEvent.UPDATE_ORDER)
+    public void onRideEvent(RideEvent event) {
+        if (event.getType() != RideEvent.Type.COMPLETED) {
+            return;
+        }
+        synchronized (this) {
+            if (held != null) {
+                held.add(event.getRide());
+            } else {
+                count(event.getRide());
+            }
+        }
+    }
+
+    private void count(Ride ride) {
+        if (ride.getDriverId() != null) {
+            increment(RideStats.DRIVER_COLLECTION, ride.getDriverId(), ride);
+        }
+        increment(RideStats.USER_COLLECTION, ride.getUserId(), ride);
+    }
+
+    private void increment(String collection, String ownerId, Ride ride) {
+        Map<String, Number> deltas = new LinkedHashMap<>();
+        deltas.put("completedRides", 1L);
+        if (ride.getFare() != null) {
+            deltas.put("totalFare", ride.getFare());
+        }
+        if (ride.getDistanceKm() != null) {
+            deltas.put("totalDistanceKm", ride.getDistanceKm());
+            deltas.put("distanceSamples", 1L);
+        }
+        counters.increment(RideStats.class, collection, ownerId, deltas, true);
+    }
+
+    @Scheduled(cron = "${rideshare.stats.reconcile-cron:-}")
+    public void scheduledReconcile() {
+        reconcile(true);
+    }
+
+    public List<StatsReconcileReport> reconcile(boolean repair) {
+        synchronized (reconcileLock) {
+            return reconcileHoldingCompletions(repair);
+        }
+    }
+
+    private List<StatsReconcileReport> reconcileHoldingCompletions(boolean repair) {
+        Date cutoff;
+        synchronized (this) {
+            held = new ArrayList<>();
+            cutoff = new Date();
+        }
+        Set<String> overwritten = new HashSet<>();
+        List<StatsReconcileReport> reports;
+        try {
+            // every completion handed over before the cutoff has to be stored before the recount
+            if (!counters.flush() && repair) {
+                logger.warn("⚠️ Ride stats counters could not be flushed, reporting drift without repairing it");
+                repair = false;
+            }
+            reports = List.of(
+                    reconcile(RideStats.DRIVER_COLLECTION, "driverId", cutoff, repair, overwritten),
+                    reconcile(RideStats.USER_COLLECTION, "userId", cutoff, repair, overwritten));
+        } finally {
+            synchronized (this) {
+                for (Ride ride : held) {
+                    // a held ride completed before the cutoff is in the recount; it only still needs
+                    // counting for an owner whose stored totals were kept
+                    if (ride.getCompletedAt() == null || !ride.getCompletedAt().before(cutoff)) {
+                        count(ride);
+                    } else {
+                        countUnlessOverwritten(ride, overwritten);
+                    }
+                }
+                held = null;
+            }
+        }
+        if (repair) {
+            analyticsCache.invalidateAll();
+        }
+        for (StatsReconcileReport report : reports) {
+            if (report.getDrifted() > 0 || report.getOrphaned() > 0) {
+                logger.warn("⚠️ Ride stats drift: {}", report);
+            } else {
+                logger.info("✅ Ride stats consistent: {}", report);
+            }
+        }
+        return reports;
+    }
+
+    private void countUnlessOverwritten(Ride ride, Set<String> overwritten) {
+        if (ride.getDriverId() != null
+                && !overwritten.contains(RideStats.DRIVER_COLLECTION + "/" + ride.getDriverId())) {
+            increment(RideStats.DRIVER_COLLECTION, ride.getDriverId(), ride);
+        }
+        if (!overwritten.contains(RideStats.USER_COLLECTION + "/" + ride.getUserId())) {
+            increment(RideStats.USER_COLLECTION, ride.getUserId(), ride);
+        }
+    }
+
+    // Totals over rides completed before the cutoff. A completion whose request stalls between
+    // its write and its event for the whole reconcile is counted twice; the next run settles it.
+    private StatsReconcileReport reconcile(String collection, String ownerField, Date cutoff, boolean repair,
+            Set<String> overwritten) {
+        long started = System.currentTimeMillis();
+        long checked = 0;
+        long drifted = 0;
+        long orphaned = 0;
+        List<String> sample = new ArrayList<>();
+
+        Aggregation totals = newAggregation(
+                match(Criteria.where(ownerField).ne(null).and("status").is(RideStatus.COMPLETED)
+                        .and("completedAt").not().gte(cutoff)),
+                group(ownerField)
+                        .count().as("completedRides")
+                        .sum("fare").as("totalFare")
+                        .sum("distanceKm").as("totalDistanceKm")
+                        .sum(HAS_DISTANCE).as("distanceSamples"))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+
+        try (Stream<Document> groups = mongoTemplate.aggregateStream(totals, "rides", Document.class)) {
+            for (Document group : (Iterable<Document>) groups::iterator) {
+                checked++;
+                RideStats expected = new RideStats(group.getString("_id"),
+                        number(group, "completedRides").longValue(),
+                        number(group, "totalFare").doubleValue(),
+                        number(group, "totalDistanceKm").doubleValue(),
+                        number(group, "distanceSamples").longValue());
+                RideStats stored = mongoTemplate.findById(expected.getId(), RideStats.class, collection);
+                if (stored == null || !sameTotals(stored, expected)) {
+                    drifted++;
+                    addSample(sample, expected.getId());
+                    if (repair) {
+                        overwrite(collection, expected);
+                        overwritten.add(collection + "/" + expected.getId());
+                    }
+                }
+            }
+        }
+
+        Query nonEmpty = new Query(Criteria.where("completedRides").gt(0));
+        nonEmpty.fields().include("_id");
+        try (Stream<RideStats> stats = mongoTemplate.stream(nonEmpty, RideStats.class, collection)) {
+            for (RideStats stored : (Iterable<RideStats>) stats::iterator) {
+                boolean hasRides = mongoTemplate.exists(new Query(Criteria.where(ownerField).is(stored.getId())
+                        .and("status").is(RideStatus.COMPLETED)), Ride.class);
+                if (!hasRides) {
+                    orphaned++;
+                    addSample(sample, stored.getId());
+                    if (repair) {
+                        mongoTemplate.remove(byId(stored.getId()), collection);
+                    }
+                }
+            }
+        }
+
+        return new StatsReconcileReport(collection, checked, drifted, orphaned, repair, sample,
+                System.currentTimeMillis() - started);
+    }
+
+    private void overwrite(String collection, RideStats expected) {
+        Update update = new Update()
+                .set("completedRides", expected.getCompletedRides())
+                .set("totalFare", expected.getTotalFare())
+                .set("totalDistanceKm", expected.getTotalDistanceKm())
+                .set("distanceSamples", expected.getDistanceSamples())
+                .currentDate("updatedAt");
+        mongoTemplate.upsert(byId(expected.getId()), update, RideStats.class, collection);
+    }
+
+    private static boolean sameTotals(RideStats a, RideStats b) {
+        return a.getCompletedRides() == b.getCompletedRides()
+                && a.getDistanceSamples() == b.getDistanceSamples()
+                && close(a.getTotalFare(), b.getTotalFare())
+                && close(a.getTotalDistanceKm(), b.getTotalDistanceKm());
+    }
+
+    // $inc and $sum add in different orders, so allow for floating-point rounding
+    private static boolean close(double a, double b) {
+        return Math.abs(a - b) <= 1e-6 * Math.max(1.0, Math.max(Math.abs(a), Math.abs(b)));
+    }
+
+    private static Number number(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number n ? n : 0;
+    }
+
+    private static void addSample(List<String> sample, String id) {
+        if (sample.size() < SAMPLE_IDS) {
+            sample.add(id);
+        }
+    }
+
+    private static Query byId(String id) {
+        return new Query(Criteria.where("_id").is(id));
+    }
+}
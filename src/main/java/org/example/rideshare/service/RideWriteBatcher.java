@@ -0,0 +1,283 @@
+package org.example.rideshare.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.WriteConcernError;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.example.rideshare.model.Ride;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Optional group commit for ride lifecycle writes. Concurrent inserts and conditional status
+ * updates are queued, gathered for at most {@code max-wait} or {@code max-batch} ops, and sent
+ * as one unordered bulkWrite; each caller blocks until its batch is acknowledged.
+ *
+ * A bulk result only says how many updates matched, not which, so every transition stamps a
+ * fresh id into its own field (acceptTxn/completeTxn) and the batch is read back once: the
+ * caller whose id is on the document won the race, everyone else's filter did not match.
+ */
+@Component
+public class RideWriteBatcher implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideWriteBatcher.class);
+
+    private sealed interface Op permits Insert, Transition {
+        CompletableFuture<Ride> result();
+    }
+
+    private record Insert(Ride ride, CompletableFuture<Ride> result) implements Op {
+    }
+
+    private record Transition(String rideId, Query filter, Update update, String txnField, String txnId,
+            Function<Ride, String> stampedTxn, CompletableFuture<Ride> result) implements Op {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Op> queue;
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+    private final Timer writeLatency;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public RideWriteBatcher(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+            @Value("${rideshare.writes.group-commit.enabled:false}") boolean enabled,
+            @Value("${rideshare.writes.group-commit.max-batch:128}") int maxBatch,
+            @Value("${rideshare.writes.group-commit.max-wait:2ms}") Duration maxWait,
+            @Value("${rideshare.writes.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = DistributionSummary.builder("rideshare.writes.batch.size")
+                .description("Ride lifecycle writes per group-committed bulkWrite")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("rideshare.writes.flush")
+                .description("bulkWrite plus readback of one group-commit batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.writeLatency = Timer.builder("rideshare.writes.latency")
+                .description("Enqueue to acknowledgement of one group-committed write")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Inserts the ride in the next batch and returns it once acknowledged. */
+    public Ride insert(Ride ride) {
+        if (ride.getId() == null) {
+            ride.setId(new ObjectId().toHexString());
+        }
+        return await(new Insert(ride, new CompletableFuture<>()));
+    }
+
+    /**
+     * Applies {@code update} to the ride if it still matches {@code filter}; returns the updated
+     * ride, or null when the filter did not match (same contract as a conditional findAndModify).
+     */
+    public Ride transition(String rideId, Query filter, Update update, String txnField,
+            Function<Ride, String> stampedTxn) {
+        return await(new Transition(rideId, filter, update, txnField, new ObjectId().toHexString(), stampedTxn,
+                new CompletableFuture<>()));
+    }
+
+    private Ride await(Op op) {
+        if (!running) {
+            throw new DataAccessResourceFailureException("Ride write pipeline is not running");
+        }
+        long enqueued = System.nanoTime();
+        try {
+            // a full queue blocks the caller: backpressure instead of unbounded buffering
+            queue.put(op);
+            // stop() may have drained the queue between the check above and the put; nothing
+            // would ever complete this op, so take it back out (if the flusher has not) and fail it
+            if (!running && queue.remove(op)) {
+                op.result().completeExceptionally(
+                        new DataAccessResourceFailureException("Ride write pipeline stopped"));
+            }
+            return op.result().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted while queueing a ride write", e);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            writeLatency.record(System.nanoTime() - enqueued, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void run() {
+        List<Op> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Op first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    Op next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                batch.forEach(op -> op.result().completeExceptionally(
+                        new DataAccessResourceFailureException("Ride write pipeline stopped")));
+            } catch (RuntimeException e) {
+                logger.error("❌ Ride write batch of {} failed: {}", batch.size(), e.getMessage());
+                batch.forEach(op -> op.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Op> batch) {
+        long started = System.nanoTime();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ride.class);
+        for (Op op : batch) {
+            if (op instanceof Insert insert) {
+                bulk.insert(insert.ride());
+            } else if (op instanceof Transition transition) {
+                bulk.updateOne(transition.filter(), transition.update().set(transition.txnField(), transition.txnId()));
+            }
+        }
+
+        boolean[] failed = new boolean[batch.size()];
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed[error.getIndex()] = true;
+                batch.get(error.getIndex()).result().completeExceptionally(
+                        new DataAccessResourceFailureException(error.getMessage()));
+            }
+            // the rest may be applied but not at the requested write concern: not acknowledged either
+            WriteConcernError concernError = e.getCause() instanceof MongoBulkWriteException bulkError
+                    ? bulkError.getWriteConcernError() : null;
+            if (e.getErrors().isEmpty() || concernError != null) {
+                DataAccessResourceFailureException notAcknowledged = new DataAccessResourceFailureException(
+                        concernError != null ? "Write concern not satisfied: " + concernError.getMessage()
+                                : e.getMessage(), e);
+                for (int i = 0; i < batch.size(); i++) {
+                    if (!failed[i]) {
+                        failed[i] = true;
+                        batch.get(i).result().completeExceptionally(notAcknowledged);
+                    }
+                }
+            }
+        }
+
+        List<String> touched = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed[i] && batch.get(i) instanceof Transition transition) {
+                touched.add(transition.rideId());
+            }
+        }
+        Map<String, Ride> current = new HashMap<>();
+        if (!touched.isEmpty()) {
+            for (Ride ride : mongoTemplate.find(new Query(Criteria.where("_id").in(touched)), Ride.class)) {
+                current.put(ride.getId(), ride);
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (failed[i]) {
+                continue;
+            }
+            Op op = batch.get(i);
+            if (op instanceof Insert insert) {
+                insert.result().complete(insert.ride());
+            } else if (op instanceof Transition transition) {
+                Ride ride = current.get(transition.rideId());
+                boolean won = ride != null && transition.txnId().equals(transition.stampedTxn().apply(ride));
+                transition.result().complete(won ? ride : null);
+            }
+        }
+        batchSize.record(batch.size());
+        flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, "ride-write-batcher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Ride write group commit enabled (max batch {}, max wait {}µs)", maxBatch,
+                TimeUnit.NANOSECONDS.toMicros(maxWaitNanos));
+    }
+
+    // Stops taking writes and drains what is already queued before the context closes Mongo
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Op> stranded = new ArrayList<>();
+        queue.drainTo(stranded);
+        stranded.forEach(op -> op.result().completeExceptionally(
+                new DataAccessResourceFailureException("Ride write pipeline stopped")));
+    }
+
+    // Start before the web server takes traffic and stop only after it has drained requests
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.rideshare.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Size-bounded, TTL-evicting cache of username -> {id, role, password hash} in front of the
+ * users collection. Anything that writes a user must call {@link #refresh} or {@link #invalidate}.
+ * Hit/miss/eviction counts are published as the "users" cache metrics.
+ */
+@Component
+public class UserCache {
+
+    public record Entry(String id, String username, String role, String passwordHash) {
+
+        static Entry of(User user) {
+            return new Entry(user.getId(), user.getUsername(), user.getRole(), user.getPassword());
+        }
+
+        public User toUser() {
+            User user = new User(username, passwordHash, role);
+            user.setId(id);
+            return user;
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final Cache<String, Entry> cache;
+
+    public UserCache(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${rideshare.users.cache.max-size:10000}") long maxSize,
+            @Value("${rideshare.users.cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<Entry> find(String username) {
+        // unknown usernames are not cached, so a later registration is visible immediately
+        return Optional.ofNullable(cache.get(username,
+                key -> userRepository.findByUsername(key).map(Entry::of).orElse(null)));
+    }
+
+    public void refresh(User user) {
+        cache.put(user.getUsername(), Entry.of(user));
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
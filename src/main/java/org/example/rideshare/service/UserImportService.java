@@ -0,0 +1,212 @@
+package org.example.rideshare.service;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import org.example.rideshare.dto.RegisterRequest;
+import org.example.rideshare.dto.UserImportReport;
+import org.example.rideshare.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk onboarding of users (typically a driver fleet) from "username,password[,role]" CSV rows;
+ * quote a field that contains a comma. Rows are read in chunks; each chunk's passwords are hashed
+ * in parallel and the chunk goes to Mongo as one unordered bulk insert, so a taken username only
+ * fails its own row. Hashing runs on its own pool rather than the login pool, so an import can't
+ * shed sign-ins.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final int MAX_SAMPLE_ERRORS = 10;
+
+    private final MongoTemplate mongoTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final int chunkSize;
+    private final int threads;
+
+    public UserImportService(MongoTemplate mongoTemplate, PasswordEncoder passwordEncoder,
+            @Value("${rideshare.users.import.chunk-size:500}") int chunkSize,
+            @Value("${rideshare.users.import.threads:0}") int threads) {
+        this.mongoTemplate = mongoTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.chunkSize = chunkSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Imports CSV rows; rows without a role get {@code defaultRole}. A "username,..." header is skipped. */
+    public UserImportReport importCsv(BufferedReader reader, String defaultRole) throws IOException {
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService hashers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "user-import-hash-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long started = System.nanoTime();
+        Tally tally = new Tally();
+        try {
+            List<RegisterRequest> chunk = new ArrayList<>(chunkSize);
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#") || (lineNumber == 1 && line.startsWith("username,"))) {
+                    continue;
+                }
+                RegisterRequest request;
+                String error;
+                try {
+                    request = parse(line, defaultRole);
+                    error = validationError(request);
+                } catch (IllegalArgumentException e) {
+                    request = null;
+                    error = e.getMessage();
+                }
+                if (error != null) {
+                    tally.invalid++;
+                    tally.sample("line " + lineNumber + ": " + error);
+                    continue;
+                }
+                chunk.add(request);
+                if (chunk.size() == chunkSize) {
+                    insert(chunk, hashers, tally);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insert(chunk, hashers, tally);
+            }
+        } finally {
+            hashers.shutdownNow();
+        }
+        UserImportReport report = new UserImportReport(tally.imported, tally.duplicates, tally.invalid, tally.failed,
+                List.copyOf(tally.samples), (System.nanoTime() - started) / 1_000_000);
+        logger.info("👥 User import: {}", report);
+        return report;
+    }
+
+    private void insert(List<RegisterRequest> chunk, ExecutorService hashers, Tally tally) {
+        List<CompletableFuture<User>> hashed = new ArrayList<>(chunk.size());
+        for (RegisterRequest request : chunk) {
+            hashed.add(CompletableFuture.supplyAsync(() ->
+                    new User(request.getUsername(), passwordEncoder.encode(request.getPassword()), request.getRole()),
+                    hashers));
+        }
+        List<User> users = hashed.stream().map(CompletableFuture::join).toList();
+
+        int rejected = 0;
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(users).execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                rejected++;
+                if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    tally.duplicates++;
+                } else {
+                    tally.failed++;
+                    tally.sample(users.get(error.getIndex()).getUsername() + ": " + error.getMessage());
+                }
+            }
+        }
+        tally.imported += users.size() - rejected;
+    }
+
+    static RegisterRequest parse(String line, String defaultRole) {
+        List<String> fields = fields(line);
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(fields.get(0).strip());
+        request.setPassword(fields.size() > 1 ? fields.get(1) : null);
+        request.setRole(fields.size() > 2 && !fields.get(2).isBlank() ? fields.get(2).strip() : defaultRole);
+        return request;
+    }
+
+    /**
+     * Splits one CSV row (RFC 4180 quoting): a field wrapped in double quotes may contain commas,
+     * and {@code ""} inside it is a literal quote. Unquoted fields are taken as-is, so a password
+     * with a comma or a leading quote has to be quoted. Rows can't span lines.
+     */
+    static List<String> fields(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        throw new IllegalArgumentException("unterminated quoted field");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',') {
+                    throw new IllegalArgumentException("unexpected text after a quoted field");
+                }
+            } else {
+                while (i < line.length() && line.charAt(i) != ',') {
+                    field.append(line.charAt(i++));
+                }
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (i >= line.length()) {
+                return fields;
+            }
+            i++; // the comma
+        }
+    }
+
+    // same rules as the User entity's validation annotations
+    static String validationError(RegisterRequest request) {
+        String username = request.getUsername();
+        if (username == null || username.isBlank() || username.length() < 3 || username.length() > 50) {
+            return "username must be between 3 and 50 characters";
+        }
+        if (request.getPassword() == null || request.getPassword().length() < 6) {
+            return "password must be at least 6 characters";
+        }
+        if (!"ROLE_USER".equals(request.getRole()) && !"ROLE_DRIVER".equals(request.getRole())) {
+            return "role must be ROLE_USER or ROLE_DRIVER";
+        }
+        return null;
+    }
+
+    private static final class Tally {
+        long imported;
+        long duplicates;
+        long invalid;
+        long failed;
+        final List<String> samples = new ArrayList<>();
+
+        void sample(String error) {
+            if (samples.size() < MAX_SAMPLE_ERRORS) {
+                samples.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.rideshare.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoIndexVerifierTest {
+
+    @Test
+    void comparesKeysDirectionAndUniqueness() {
+        Index username = new Index().on("username", Sort.Direction.ASC).unique().named("username_unique");
+
+        assertTrue(MongoIndexVerifier.sameSpec(username, listed(new Document("username", 1.0), true)));
+        assertFalse(MongoIndexVerifier.sameSpec(username, listed(new Document("username", 1), false)));
+        assertFalse(MongoIndexVerifier.sameSpec(username, listed(new Document("username", -1), true)));
+        assertFalse(MongoIndexVerifier.sameSpec(username,
+                listed(new Document("username", 1).append("role", 1), true)));
+    }
+
+    @Test
+    void comparesCompoundKeyOrder() {
+        Index declared = new Index().on("fare", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("fare_id");
+
+        assertTrue(MongoIndexVerifier.sameSpec(declared, listed(new Document("fare", 1).append("_id", 1), false)));
+        assertFalse(MongoIndexVerifier.sameSpec(declared, listed(new Document("_id", 1).append("fare", 1), false)));
+    }
+
+    @Test
+    void comparesTextIndexesByWeightedFields() {
+        TextIndexDefinition declared = TextIndexDefinition.builder()
+                .onField("pickupLocation").onField("dropLocation").named("Ride_TextIndex").build();
+        Document key = new Document("_fts", "text").append("_ftsx", 1);
+
+        assertTrue(MongoIndexVerifier.sameSpec(declared, listed(key, false)
+                .append("weights", new Document("dropLocation", 1).append("pickupLocation", 1))));
+        assertFalse(MongoIndexVerifier.sameSpec(declared, listed(key, false)
+                .append("weights", new Document("pickupLocation", 1))));
+    }
+
+    private static Document listed(Document key, boolean unique) {
+        Document index = new Document("v", 2).append("key", key).append("name", "x");
+        return unique ? index.append("unique", true) : index;
+    }
+}
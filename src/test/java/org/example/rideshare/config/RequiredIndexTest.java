@@ -0,0 +1,73 @@
+package org.example.rideshare.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RequiredIndexTest {
+
+    @Container
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setUp() {
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "index_verifier");
+        mongoTemplate.getDb().drop();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void duplicateUsernamesStopStartup() {
+        mongoTemplate.insert(new Document("username", "twin"), "users");
+        mongoTemplate.insert(new Document("username", "twin"), "users");
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> new MongoIndexVerifier(mongoTemplate, true).verify(User.class));
+        assertTrue(failure.getMessage().contains("username_unique"));
+    }
+
+    @Test
+    void missingUniqueIndexFailsWhenCreationIsOff() {
+        mongoTemplate.createCollection(User.class);
+
+        assertThrows(IllegalStateException.class,
+                () -> new MongoIndexVerifier(mongoTemplate, false).verify(User.class));
+    }
+
+    @Test
+    void driftedUniqueIndexFailsAndOtherDriftIsOnlyReported() {
+        mongoTemplate.indexOps(User.class).ensureIndex(
+                new Index().on("username", Sort.Direction.ASC).named("username_unique"));
+        assertThrows(IllegalStateException.class,
+                () -> new MongoIndexVerifier(mongoTemplate, true).verify(User.class));
+
+        mongoTemplate.indexOps(Ride.class).ensureIndex(
+                new Index().on("fare", Sort.Direction.DESC).named("fare_id"));
+        List<String> missing = new MongoIndexVerifier(mongoTemplate, true).verify(Ride.class);
+        assertFalse(missing.contains("fare_id"));
+    }
+}
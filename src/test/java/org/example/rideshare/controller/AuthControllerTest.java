@@ -0,0 +1,103 @@
+package org.example.rideshare.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.rideshare.dto.AuthResponse;
+import org.example.rideshare.dto.LoginRequest;
+import org.example.rideshare.dto.RegisterRequest;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.CustomUserDetails;
+import org.example.rideshare.security.CustomUserDetailsService;
+import org.example.rideshare.security.JwtService;
+import org.example.rideshare.security.MeteredBCryptPasswordEncoder;
+import org.example.rideshare.security.PasswordHashExecutor;
+import org.example.rideshare.service.UserCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AuthControllerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MeteredBCryptPasswordEncoder encoder = new MeteredBCryptPasswordEncoder(5, registry);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final PasswordHashExecutor hashExecutor = new PasswordHashExecutor(registry, 1, 8);
+    private final ExecutorService mongoExecutor = Executors.newSingleThreadExecutor(task -> new Thread(task, "mongo-io"));
+    private final AuthController controller = new AuthController(userRepository, encoder, userDetailsService,
+            new JwtService(100), mock(UserCache.class), hashExecutor, mongoExecutor);
+
+    @AfterEach
+    void tearDown() {
+        hashExecutor.shutdown();
+        mongoExecutor.shutdown();
+    }
+
+    @Test
+    void registerInsertsOffTheHashingPool() {
+        AtomicReference<String> insertedOn = new AtomicReference<>();
+        when(userRepository.insert(any(User.class))).thenAnswer(invocation -> {
+            insertedOn.set(Thread.currentThread().getName());
+            return invocation.getArgument(0);
+        });
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername("alice");
+        request.setPassword("secret");
+        request.setRole("ROLE_USER");
+
+        assertEquals("User registered successfully", controller.register(request).join());
+        assertEquals("mongo-io", insertedOn.get());
+    }
+
+    @Test
+    void loginWritesAnUpgradedHashOffTheHashingPool() {
+        User stored = new User("alice", new MeteredBCryptPasswordEncoder(4, registry).encode("secret"), "ROLE_DRIVER");
+        stored.setId("64b7f0c2a1b2c3d4e5f60718");
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(new CustomUserDetails(stored));
+        AtomicReference<String> updatedOn = new AtomicReference<>();
+        when(userDetailsService.updatePassword(any(), any())).thenAnswer(invocation -> {
+            updatedOn.set(Thread.currentThread().getName());
+            return invocation.getArgument(0);
+        });
+
+        AuthResponse response = controller.login(login("alice", "secret")).join();
+
+        assertEquals("ROLE_DRIVER", response.getRole());
+        assertEquals("mongo-io", updatedOn.get());
+        verify(userDetailsService).updatePassword(any(), argThat(hash -> hash.startsWith("$2a$05$")));
+    }
+
+    @Test
+    void unknownUsersAndWrongPasswordsGetTheSameAnswer() {
+        User stored = new User("alice", encoder.encode("secret"), "ROLE_USER");
+        when(userDetailsService.loadUserByUsername("alice")).thenReturn(new CustomUserDetails(stored));
+        when(userDetailsService.loadUserByUsername(eq("bob"))).thenThrow(new UsernameNotFoundException("User not found"));
+
+        CompletionException wrongPassword = assertThrows(CompletionException.class,
+                () -> controller.login(login("alice", "nope")).join());
+        CompletionException unknown = assertThrows(CompletionException.class,
+                () -> controller.login(login("bob", "secret")).join());
+
+        assertInstanceOf(BadCredentialsException.class, wrongPassword.getCause());
+        assertEquals(wrongPassword.getCause().getMessage(), unknown.getCause().getMessage());
+        verify(userDetailsService, never()).updatePassword(any(), any());
+    }
+
+    private static LoginRequest login(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.rideshare.controller;
+
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.CustomUserDetails;
+import org.example.rideshare.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "rideshare.metrics.scrape-password=scrape-secret")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@Testcontainers(disabledWithoutDocker = true)
+class MetricsEndpointTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void exposesEndpointServiceMongoAndJwtHistograms() throws Exception {
+        userRepository.deleteAll();
+        String token = "Bearer " + jwtService.generateToken(
+                new CustomUserDetails(userRepository.save(new User("metrics-user", "x", "ROLE_USER"))));
+
+        mockMvc.perform(get("/api/v1/user/rides").header("Authorization", token)).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", token))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header("Authorization", basic("prometheus", "wrong")))
+                .andExpect(status().isUnauthorized());
+        String scrape = mockMvc.perform(get("/actuator/prometheus")
+                        .header("Authorization", basic("prometheus", "scrape-secret")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "endpoint histogram");
+        assertTrue(scrape.matches("(?s).*http_server_requests_seconds_bucket\\{[^}]*uri=\"/api/v1/user/rides\".*"));
+        assertTrue(scrape.matches("(?s).*rideshare_service_seconds_bucket\\{[^}]*class=\"org.example.rideshare.service.RideService\"[^}]*method=\"getUserRideResponses\".*"));
+        assertTrue(scrape.matches("(?s).*mongodb_driver_commands_seconds_bucket\\{[^}]*collection=\"rides\"[^}]*command=\"find\".*"));
+        assertTrue(scrape.contains("mongodb_driver_pool_size{"));
+        assertTrue(scrape.matches("(?s).*rideshare_auth_jwt_filter_seconds_bucket\\{[^}]*outcome=\"authenticated\".*"));
+    }
+
+    private static String basic(String username, String password) {
+        byte[] credentials = (username + ":" + password).getBytes(StandardCharsets.UTF_8);
+        return "Basic " + Base64.getEncoder().encodeToString(credentials);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.rideshare.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class NdjsonStreamerTest {
+
+    private final NdjsonStreamer streamer = new NdjsonStreamer(new ObjectMapper(), 2, Duration.ofMinutes(10));
+
+    @Test
+    void writesOneJsonObjectPerLine() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Map<String, Object>> rows = Stream.of(Map.<String, Object>of("id", "a"), Map.<String, Object>of("id", "b"))
+                .onClose(() -> closed.set(true));
+
+        ResponseEntity<StreamingResponseBody> response = streamer.stream(() -> rows);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals("{\"id\":\"a\"}\n{\"id\":\"b\"}\n", out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void stopsPullingAndClosesTheSourceWhenTheClientDisconnects() {
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<Map<String, Object>> rows = IntStream.range(0, 1_000_000)
+                .mapToObj(i -> {
+                    pulled.incrementAndGet();
+                    return Map.<String, Object>of("n", i);
+                })
+                .onClose(() -> closed.set(true));
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertDoesNotThrow(() -> streamer.stream(() -> rows).getBody().writeTo(broken));
+        assertTrue(closed.get());
+        assertTrue(pulled.get() < 1_000, "pulled " + pulled.get() + " rows after the client went away");
+    }
+
+    @Test
+    void opensTheSourceOnlyWhenTheBodyRuns() throws IOException {
+        AtomicInteger opened = new AtomicInteger();
+
+        ResponseEntity<StreamingResponseBody> response = streamer.stream(() -> {
+            opened.incrementAndGet();
+            return Stream.of(Map.of("id", "a"));
+        });
+        assertEquals(0, opened.get());
+
+        response.getBody().writeTo(new ByteArrayOutputStream());
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    void onlyExportResponsesGetTheExportTimeout() throws Exception {
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new ExportController(streamer)).build();
+
+        MvcResult export = mvc.perform(get("/export")).andExpect(request().asyncStarted()).andReturn();
+        MvcResult other = mvc.perform(get("/other")).andExpect(request().asyncStarted()).andReturn();
+
+        assertEquals(Duration.ofMinutes(10).toMillis(), export.getRequest().getAsyncContext().getTimeout());
+        assertNotEquals(Duration.ofMinutes(10).toMillis(), other.getRequest().getAsyncContext().getTimeout());
+    }
+
+    @RestController
+    static class ExportController {
+        private final NdjsonStreamer streamer;
+
+        ExportController(NdjsonStreamer streamer) {
+            this.streamer = streamer;
+        }
+
+        @GetMapping("/export")
+        ResponseEntity<StreamingResponseBody> export() {
+            return streamer.stream(() -> Stream.of(Map.of("id", "a")));
+        }
+
+        @GetMapping("/other")
+        StreamingResponseBody other() {
+            return out -> out.write('x');
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.rideshare.controller;
+
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.RideRepository;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.example.rideshare.security.CustomUserDetails;
+import org.example.rideshare.security.JwtService;
+import org.example.rideshare.service.RideService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class RideEventStreamTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    private User passenger;
+    private User otherPassenger;
+    private User driver;
+
+    @BeforeEach
+    void setUp() {
+        rideRepository.deleteAll();
+        userRepository.deleteAll();
+        passenger = userRepository.save(new User("sse-passenger", "x", "ROLE_USER"));
+        otherPassenger = userRepository.save(new User("sse-other", "x", "ROLE_USER"));
+        driver = userRepository.save(new User("sse-driver", "x", "ROLE_DRIVER"));
+    }
+
+    @Test
+    void requiresAToken() throws Exception {
+        mockMvc.perform(get("/api/v1/events/rides")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void pushesLifecycleEventsToTheRightSubscribers() throws Exception {
+        MockHttpServletResponse passengerStream = subscribe(passenger);
+        MockHttpServletResponse otherStream = subscribe(otherPassenger);
+        MockHttpServletResponse driverStream = subscribe(driver);
+
+        Ride ride = rideService.requestRide(rideRequest(), principal(passenger));
+        rideService.acceptRide(ride.getId(), principal(driver));
+        rideService.completeRide(ride.getId(), principal(driver));
+
+        String passengerEvents = awaitContent(passengerStream, "event:ride-completed");
+        assertTrue(passengerEvents.contains("event:ride-created"));
+        assertTrue(passengerEvents.contains("event:ride-accepted"));
+        assertTrue(passengerEvents.contains("\"id\":\"" + ride.getId() + "\""));
+
+        String driverEvents = awaitContent(driverStream, "event:ride-completed");
+        assertTrue(driverEvents.contains("event:ride-created"));
+
+        assertFalse(otherStream.getContentAsString().contains("event:ride"));
+    }
+
+    private MockHttpServletResponse subscribe(User user) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/events/rides")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(new CustomUserDetails(user))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return result.getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String marker) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!content.contains(marker) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertTrue(content.contains(marker), content);
+        return content;
+    }
+
+    private static CreateRideRequest rideRequest() {
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPickupLocation("A");
+        request.setDropLocation("B");
+        return request;
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
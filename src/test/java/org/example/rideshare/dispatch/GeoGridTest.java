@@ -0,0 +1,117 @@
+package org.example.rideshare.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridTest {
+
+    @Test
+    void matchesBruteForceNearestSearch() {
+        Random random = new Random(42);
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            double lat = 17.3 + random.nextDouble() * 0.4;
+            double lon = 78.3 + random.nextDouble() * 0.4;
+            points.add(new double[] { lat, lon, i });
+            grid.put("r" + i, lat, lon, "r" + i);
+        }
+
+        for (int q = 0; q < 50; q++) {
+            double lat = 17.3 + random.nextDouble() * 0.4;
+            double lon = 78.3 + random.nextDouble() * 0.4;
+            double radius = 0.5 + random.nextDouble() * 5;
+
+            List<String> expected = points.stream()
+                    .filter(p -> GeoGrid.haversineKm(lat, lon, p[0], p[1]) <= radius)
+                    .sorted(Comparator.comparingDouble(p -> GeoGrid.haversineKm(lat, lon, p[0], p[1])))
+                    .limit(10)
+                    .map(p -> "r" + (int) p[2])
+                    .toList();
+            List<String> actual = grid.nearest(lat, lon, radius, 10).stream()
+                    .map(GeoGrid.Match::value)
+                    .toList();
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void removedAndMovedPointsAreNotReturned() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        grid.put("a", 10.0, 10.0, "a");
+        grid.put("b", 10.001, 10.001, "b");
+        grid.remove("a");
+        grid.put("b", 20.0, 20.0, "b");
+
+        assertTrue(grid.nearest(10.0, 10.0, 5, 10).isEmpty());
+        assertEquals(1, grid.nearest(20.0, 20.0, 1, 10).size());
+        assertEquals(1, grid.size());
+    }
+
+    @Test
+    void wrapsAcrossTheAntimeridian() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        grid.put("east", 0.0, 179.999, "east");
+
+        List<GeoGrid.Match<String>> found = grid.nearest(0.0, -179.999, 1, 5);
+        assertEquals(1, found.size());
+        assertTrue(found.get(0).distanceKm() < 0.3);
+    }
+
+    @Test
+    void nearThePoleAnswersQuicklyAndExactly() {
+        Random random = new Random(7);
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double lat = 89.5 + random.nextDouble() * 0.5;
+            double lon = -180 + random.nextDouble() * 360;
+            points.add(new double[] { lat, lon, i });
+            grid.put("p" + i, lat, lon, "p" + i);
+        }
+
+        List<String> expected = points.stream()
+                .filter(p -> GeoGrid.haversineKm(89.9, 10.0, p[0], p[1]) <= 50)
+                .sorted(Comparator.comparingDouble(p -> GeoGrid.haversineKm(89.9, 10.0, p[0], p[1])))
+                .limit(20)
+                .map(p -> "p" + (int) p[2])
+                .toList();
+        List<String> actual = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> grid.nearest(89.9, 10.0, 50, 20).stream().map(GeoGrid.Match::value).toList());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void thePolesAndTheAntimeridianFallInsideTheGrid() {
+        GeoGrid<String> grid = new GeoGrid<>(0.01);
+        assertEquals(17_999, grid.row(90));
+        assertEquals(0, grid.row(-90));
+        assertEquals(35_999, grid.col(180));
+        assertEquals(0, grid.col(-180));
+
+        grid.put("north", 90, 0, "north");
+        grid.put("east", 0, 180, "east");
+        assertEquals(List.of("north"), grid.nearest(89.999, 45, 1, 5).stream().map(GeoGrid.Match::value).toList());
+        assertEquals(List.of("east"), grid.nearest(0, -179.999, 1, 5).stream().map(GeoGrid.Match::value).toList());
+    }
+
+    @Test
+    void radiusWiderThanTheGridReturnsEachPointOnce() {
+        GeoGrid<String> grid = new GeoGrid<>(10);
+        for (int i = 0; i < 40; i++) {
+            grid.put("p" + i, -60 + i * 3, -170 + i * 9, "p" + i);
+        }
+
+        List<GeoGrid.Match<String>> found = grid.nearest(0, 0, 25_000, 100);
+        assertEquals(40, found.size());
+        assertEquals(40, new HashSet<>(found.stream().map(GeoGrid.Match::value).toList()).size());
+    }
+}
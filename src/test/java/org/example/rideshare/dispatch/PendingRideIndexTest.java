@@ -0,0 +1,87 @@
+package org.example.rideshare.dispatch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.rideshare.dto.RideResponse;
+import org.example.rideshare.event.RideEvent;
+import org.example.rideshare.event.RideEventBus;
+import org.example.rideshare.event.RidesCreatedEvent;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.example.rideshare.repository.RideRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PendingRideIndexTest {
+
+    @Test
+    void recoversFromRepositoryAndServesOldestFirst() {
+        RideRepository repository = mock(RideRepository.class);
+        when(repository.findByStatus(RideStatus.REQUESTED))
+                .thenReturn(List.of(ride("b", 2000), ride("a", 1000), ride("c", 3000)));
+
+        PendingRideIndex index = new PendingRideIndex(repository, 0.01);
+        index.afterSingletonsInstantiated();
+
+        assertEquals(List.of("a", "b"), ids(index.oldest(2)));
+        assertEquals(List.of("c"), ids(index.oldestAfter(2000, "b", 2)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void followsRideEvents() {
+        PendingRideIndex index = new PendingRideIndex(mock(RideRepository.class), 0.01);
+
+        index.onRideEvent(new RideEvent(RideEvent.Type.CREATED, ride("x", 5000)));
+        index.onRideEvent(new RideEvent(RideEvent.Type.CREATED, ride("y", 5000)));
+        index.onRideEvent(new RideEvent(RideEvent.Type.CREATED, ride("z", 4000)));
+        assertEquals(List.of("z", "x", "y"), ids(index.oldest(10)));
+
+        index.onRideEvent(new RideEvent(RideEvent.Type.ACCEPTED, ride("x", 5000)));
+        assertEquals(List.of("z", "y"), ids(index.oldest(10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void isUpdatedBeforeDriversArePushedTheEvent() {
+        PendingRideIndex index = spy(new PendingRideIndex(mock(RideRepository.class), 0.01));
+        RideEventBus bus = spy(new RideEventBus(new ObjectMapper(), new SimpleMeterRegistry(), 4, 2,
+                Duration.ofMinutes(1), 1));
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            // registered push-first so the order comes from the listeners, not registration
+            context.registerBean(RideEventBus.class, () -> bus);
+            context.registerBean(PendingRideIndex.class, () -> index);
+            context.refresh();
+
+            RideEvent created = new RideEvent(RideEvent.Type.CREATED, ride("x", 5000));
+            RidesCreatedEvent batch = new RidesCreatedEvent(List.of(ride("y", 6000)));
+            context.publishEvent(created);
+            context.publishEvent(batch);
+
+            InOrder order = inOrder(index, bus);
+            order.verify(index).onRideEvent(created);
+            order.verify(bus).onRideEvent(created);
+            order.verify(index).onRidesCreated(batch);
+            order.verify(bus).onRidesCreated(batch);
+        }
+    }
+
+    private static Ride ride(String id, long createdAt) {
+        Ride ride = new Ride("user", "A", "B");
+        ride.setId(id);
+        ride.setCreatedAt(new Date(createdAt));
+        return ride;
+    }
+
+    private static List<String> ids(List<RideResponse> rides) {
+        return rides.stream().map(RideResponse::getId).toList();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.rideshare.dto;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideResponseTest {
+
+    // what Jackson would write for RideResponse without the hand-written serializer
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class BeanSerialized {
+    }
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json()
+            .mixIn(RideResponse.class, BeanSerialized.class)
+            .build();
+
+    @Test
+    void serializesExactlyLikeTheBeanSerializer() throws Exception {
+        Ride full = ride();
+        Ride bare = new Ride("u1", "A", "B");
+
+        for (Ride ride : new Ride[] { full, bare }) {
+            RideResponse response = RideResponse.fromEntity(ride);
+            assertEquals(beanMapper.writeValueAsString(response), mapper.writeValueAsString(response));
+        }
+    }
+
+    @Test
+    void mapsAProjectedDocumentLikeTheEntity() throws Exception {
+        Ride ride = ride();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+                new MongoMappingContext());
+        converter.afterPropertiesSet();
+        Document stored = new Document();
+        converter.write(ride, stored);
+
+        Document projected = new Document("_id", stored.get("_id"));
+        for (String field : RideResponse.FIELDS) {
+            if (stored.containsKey(field)) {
+                projected.put(field, stored.get(field));
+            }
+        }
+
+        assertEquals(mapper.writeValueAsString(RideResponse.fromEntity(ride)),
+                mapper.writeValueAsString(RideResponse.fromDocument(projected)));
+    }
+
+    private static Ride ride() {
+        Ride ride = new Ride("u1", "Airport", "Station");
+        ride.setId(new ObjectId().toHexString());
+        ride.setDriverId("d1");
+        ride.setPickupPoint(new GeoJsonPoint(78.47, 17.38));
+        ride.setDropPoint(new GeoJsonPoint(78.50, 17.44));
+        ride.setStatus(RideStatus.ACCEPTED);
+        ride.setCreatedAt(new Date(1_700_000_000_123L));
+        return ride;
+    }
+}
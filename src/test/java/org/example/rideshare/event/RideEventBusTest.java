@@ -0,0 +1,88 @@
+package org.example.rideshare.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideEventBusTest {
+
+    private final AuthenticatedUser passenger = new AuthenticatedUser("u1", "passenger", "ROLE_USER");
+    private final AuthenticatedUser otherPassenger = new AuthenticatedUser("u2", "other", "ROLE_USER");
+    private final AuthenticatedUser driver = new AuthenticatedUser("d1", "driver", "ROLE_DRIVER");
+    private final AuthenticatedUser otherDriver = new AuthenticatedUser("d2", "other-driver", "ROLE_DRIVER");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RideEventBus bus = new RideEventBus(new ObjectMapper(), registry, 4, 2,
+            Duration.ofMinutes(1), 1);
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void passengersOnlyHearAboutTheirOwnRides() {
+        Ride ride = new Ride("u1", "A", "B");
+        for (RideEvent.Type type : RideEvent.Type.values()) {
+            assertTrue(RideEventBus.receives(passenger, type, ride));
+            assertFalse(RideEventBus.receives(otherPassenger, type, ride));
+        }
+    }
+
+    @Test
+    void everyDriverHearsAboutNewAndTakenRidesButOnlyTheAssignedOneAboutCompletion() {
+        Ride ride = new Ride("u1", "A", "B");
+        ride.setDriverId("d1");
+
+        assertTrue(RideEventBus.receives(otherDriver, RideEvent.Type.CREATED, ride));
+        assertTrue(RideEventBus.receives(otherDriver, RideEvent.Type.ACCEPTED, ride));
+        assertTrue(RideEventBus.receives(driver, RideEvent.Type.COMPLETED, ride));
+        assertFalse(RideEventBus.receives(otherDriver, RideEvent.Type.COMPLETED, ride));
+    }
+
+    @Test
+    void refusesSubscribersOverTheLimit() {
+        bus.subscribe(passenger);
+        bus.subscribe(driver);
+
+        assertEquals(2, bus.subscriberCount());
+        assertThrows(ResponseStatusException.class, () -> bus.subscribe(otherDriver));
+    }
+
+    @Test
+    void aBatchLargerThanTheBufferIsOneEvent() {
+        bus.subscribe(passenger);
+        bus.subscribe(driver);
+        List<Ride> rides = IntStream.range(0, 50).mapToObj(i -> new Ride("u1", "A" + i, "B")).toList();
+
+        bus.onRidesCreated(new RidesCreatedEvent(rides));
+        bus.onRidesCreated(new RidesCreatedEvent(rides));
+
+        assertEquals(2, bus.subscriberCount());
+        assertEquals(0.0, registry.get("rideshare.push.overflows").counter().count());
+    }
+
+    @Test
+    void completedStreamsAreDropped() {
+        bus.subscribe(passenger).complete();
+        // completion callbacks only run once the emitter is attached to a response; a write to a
+        // completed emitter fails and the sender removes the subscriber instead
+        bus.onRideEvent(new RideEvent(RideEvent.Type.CREATED, new Ride("u1", "A", "B")));
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (bus.subscriberCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, bus.subscriberCount());
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.rideshare.security;
+
+import com.mongodb.client.result.UpdateResult;
+import org.example.rideshare.model.User;
+import org.example.rideshare.service.UserCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CustomUserDetailsServiceTest {
+
+    private final UserCache userCache = mock(UserCache.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final CustomUserDetailsService service = new CustomUserDetailsService(userCache, mongoTemplate);
+
+    @Test
+    void rehashIsCachedWhenItReplacedTheVerifiedHash() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        UserDetails updated = service.updatePassword(alice("old-hash"), "new-hash");
+
+        assertEquals("new-hash", updated.getPassword());
+        verify(userCache).refresh(argThat(user -> "new-hash".equals(user.getPassword())));
+    }
+
+    @Test
+    void aConcurrentPasswordChangeWinsOverTheRehash() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(User.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        CustomUserDetails verified = alice("old-hash");
+
+        assertSame(verified, service.updatePassword(verified, "rehash-of-old"));
+        verify(userCache).invalidate("alice");
+        verify(userCache, never()).refresh(any());
+    }
+
+    private static CustomUserDetails alice(String hash) {
+        User user = new User("alice", hash, "ROLE_USER");
+        user.setId("64b7f0c2a1b2c3d4e5f60718");
+        return new CustomUserDetails(user);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.rideshare.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.example.rideshare.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final Key KEY = Keys.hmacShaKeyFor(
+            "CHANGE_THIS_SECRET_KEY_TO_SOMETHING_LONG_256_BITS".getBytes(StandardCharsets.UTF_8));
+
+    private final JwtService jwtService = new JwtService(100);
+
+    @Test
+    void verifiesOnceAndServesRepeatsFromCache() {
+        String token = jwtService.generateToken(new CustomUserDetails(new User("alice", "x", "ROLE_USER")));
+
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        assertEquals("alice", first.getSubject());
+        assertSame(first, second);
+        assertEquals("alice", jwtService.extractUsername(token));
+    }
+
+    @Test
+    void principalComesFromClaims() {
+        User user = new User("bob", "x", "ROLE_DRIVER");
+        user.setId("64b7f0c2a1b2c3d4e5f60718");
+        String token = jwtService.generateToken(new CustomUserDetails(user));
+
+        AuthenticatedUser principal = jwtService.toPrincipal(jwtService.verify(token));
+
+        assertEquals("64b7f0c2a1b2c3d4e5f60718", principal.getId());
+        assertEquals("bob", principal.getUsername());
+        assertEquals("ROLE_DRIVER", principal.getRole());
+    }
+
+    @Test
+    void tokensWithoutIdClaimsHaveNoPrincipal() {
+        String legacy = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(KEY, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertNull(jwtService.toPrincipal(jwtService.verify(legacy)));
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        String token = jwtService.generateToken(new CustomUserDetails(new User("alice", "x", "ROLE_USER")));
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        String expired = Jwts.builder()
+                .setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(KEY, SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(expired));
+        assertFalse(jwtService.isTokenValid(expired, new CustomUserDetails(new User("alice", "x", "ROLE_USER"))));
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.rideshare.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.rideshare.exception.ServiceBusyException;
+import org.example.rideshare.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void hashesWithTheConfiguredCostAndTimesEachCall() {
+        MeteredBCryptPasswordEncoder encoder = new MeteredBCryptPasswordEncoder(5, registry);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("$2a$05$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertEquals(1, registry.get("rideshare.auth.hash.latency").tag("op", "encode").timer().count());
+        assertEquals(1, registry.get("rideshare.auth.hash.latency").tag("op", "verify").timer().count());
+    }
+
+    @Test
+    void anyOtherCostNeedsUpgrade() {
+        MeteredBCryptPasswordEncoder encoder = new MeteredBCryptPasswordEncoder(5, registry);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new MeteredBCryptPasswordEncoder(4, registry).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new MeteredBCryptPasswordEncoder(6, registry).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+        assertFalse(encoder.upgradeEncoding(null));
+    }
+
+    @Test
+    void loginRehashesWhenTheCostChanged() {
+        String oldHash = new MeteredBCryptPasswordEncoder(4, registry).encode("secret");
+        User stored = new User("alice", oldHash, "ROLE_USER");
+        stored.setId("64b7f0c2a1b2c3d4e5f60718");
+        AtomicReference<String> rehashed = new AtomicReference<>();
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(new MeteredBCryptPasswordEncoder(5, registry));
+        provider.setUserDetailsService(username -> new CustomUserDetails(stored));
+        provider.setUserDetailsPasswordService((UserDetails user, String newPassword) -> {
+            rehashed.set(newPassword);
+            return user;
+        });
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("alice", "secret"));
+
+        assertNotNull(rehashed.get());
+        assertTrue(rehashed.get().startsWith("$2a$05$"));
+    }
+
+    @Test
+    void shedsLoadOnceTheQueueIsFull() throws Exception {
+        PasswordHashExecutor executor = new PasswordHashExecutor(registry, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = executor.submit(() -> {
+                started.countDown();
+                await(release);
+                return "first";
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = executor.submit(() -> "second");
+
+            ServiceBusyException busy = assertThrows(ServiceBusyException.class, () -> executor.submit(() -> "third"));
+
+            assertEquals(1, busy.getRetryAfterSeconds());
+            assertEquals(1.0, registry.get("rideshare.auth.hash.queue").gauge().value());
+            assertEquals(1.0, registry.get("rideshare.auth.hash.rejected").counter().count());
+            release.countDown();
+            assertEquals("first", running.get(5, TimeUnit.SECONDS));
+            assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
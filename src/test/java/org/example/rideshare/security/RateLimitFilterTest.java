@@ -0,0 +1,224 @@
+package org.example.rideshare.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RateLimitFilter filter = new RateLimitFilter(registry, true,
+            "3/1m", "1/1m", "5/1m", "10/1m", "6/1m", 4, DataSize.ofBytes(64), 1000,
+            Duration.ofMinutes(5), clock::get);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void admitsABurstThenRejectsWithRetryAfter() throws Exception {
+        signIn("u1", "ROLE_USER");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, post("/api/rides").getStatus());
+        }
+        MockHttpServletResponse rejected = post("/api/rides");
+
+        assertEquals(429, rejected.getStatus());
+        // 3 per minute: one token every 20s
+        assertEquals("20", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("TOO_MANY_REQUESTS"));
+        assertEquals(1.0, registry.get("rideshare.rate-limit.rejected").tag("endpoint", "ride_request")
+                .counter().count());
+    }
+
+    @Test
+    void refillsOverTime() throws Exception {
+        signIn("u1", "ROLE_USER");
+        for (int i = 0; i < 3; i++) {
+            post("/api/v1/rides");
+        }
+        assertEquals(429, post("/api/rides").getStatus());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+
+        assertEquals(200, post("/api/v1/rides").getStatus());
+        assertEquals(429, post("/api/v1/rides").getStatus());
+    }
+
+    @Test
+    void limitsAreSeparatePerEndpointClassRoleAndUser() throws Exception {
+        signIn("d1", "ROLE_DRIVER");
+        assertEquals(200, post("/api/rides").getStatus());
+        assertEquals(429, post("/api/rides").getStatus());
+        // driver accepts have their own, larger bucket
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, post("/api/v1/driver/rides/r" + i + "/accept").getStatus());
+        }
+        assertEquals(429, post("/api/rides/accept/r10").getStatus());
+
+        signIn("d2", "ROLE_DRIVER");
+        assertEquals(200, post("/api/rides/accept/r10").getStatus());
+    }
+
+    @Test
+    void readsAndAnonymousRequestsAreNotLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, post("/api/rides").getStatus());
+        }
+        signIn("u1", "ROLE_USER");
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/rides/user/me");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+        }
+        assertEquals(0, filter.bucketCount());
+    }
+
+    @Test
+    void idleBucketsAreEvicted() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            signIn("u" + i, "ROLE_USER");
+            post("/api/rides");
+        }
+        assertEquals(50, filter.bucketCount());
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(6));
+
+        assertEquals(0, filter.bucketCount());
+    }
+
+    @Test
+    void batchesAreChargedOneTokenPerRide() throws Exception {
+        signIn("u1", "ROLE_USER");
+        String four = "[{\"pickupLocation\":\"A\"},{},{},{}]";
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse admitted = postBatch(four, chain);
+        assertEquals(200, admitted.getStatus());
+        // the controller still gets the whole body
+        assertEquals(four, new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+        MockHttpServletResponse rejected = postBatch(four, new MockFilterChain());
+        assertEquals(429, rejected.getStatus());
+        // 6 per minute: two tokens left, two more ride tokens come in 20s
+        assertEquals("20", rejected.getHeader("Retry-After"));
+        assertEquals(200, postBatch("[{},{}]", new MockFilterChain()).getStatus());
+        // single requests have their own bucket
+        assertEquals(200, post("/api/v1/rides").getStatus());
+    }
+
+    @Test
+    void batchesTheControllerRejectsCostOneToken() {
+        assertEquals(1, filter.batchItems("{}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, filter.batchItems("[{},".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, filter.batchItems("[]".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, filter.batchItems("[{},{},{},{},{}]".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(3, filter.batchItems("[{\"a\":[1,2]},{},{}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void oversizedBatchBodiesAreRejectedBeforeCounting() throws Exception {
+        signIn("u1", "ROLE_USER");
+        // cap is 4 rides x 64 bytes
+        String big = "[{\"pickupLocation\":\"" + "x".repeat(300) + "\"}]";
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse declared = postBatch(big, chain);
+        assertEquals(413, declared.getStatus());
+        assertNull(chain.getRequest());
+
+        // no Content-Length (chunked): the read itself stops at the cap
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/api/v1/rides/batch") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        chunked.setContent(big.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse streamed = new MockHttpServletResponse();
+        filter.doFilter(chunked, streamed, new MockFilterChain());
+        assertEquals(413, streamed.getStatus());
+        assertTrue(streamed.getContentAsString().contains("PAYLOAD_TOO_LARGE"));
+
+        // nothing was charged
+        assertEquals(200, postBatch("[{},{},{},{}]", new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void batchLimitMustFitTheLargestBatch() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitFilter(registry, true,
+                "3/1m", "1/1m", "5/1m", "10/1m", "3/1m", 4, DataSize.ofBytes(64), 1000, Duration.ofMinutes(5), clock::get));
+    }
+
+    @Test
+    void parsesLimitSpecs() {
+        RateLimitFilter.Limit limit = RateLimitFilter.Limit.parse("10/1m");
+
+        assertEquals(10, limit.capacity());
+        assertEquals(TimeUnit.SECONDS.toNanos(6), limit.intervalNanos());
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.Limit.parse("10"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitFilter.Limit.parse("0/1m"));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        RateLimitFilter.Limit limit = RateLimitFilter.Limit.parse("100/1h");
+        RateLimitFilter.TokenBucket bucket = new RateLimitFilter.TokenBucket(0);
+        AtomicLong admitted = new AtomicLong();
+
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(limit, 0) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100, admitted.get());
+    }
+
+    private MockHttpServletResponse post(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", path), response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletResponse postBatch(String body, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/rides/batch");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void signIn(String id, String role) {
+        AuthenticatedUser user = new AuthenticatedUser(id, id, role);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.rideshare.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.rideshare.event.CountersFlushedEvent;
+import org.example.rideshare.model.RideBucket;
+import org.example.rideshare.model.RideStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final AnalyticsCache cache = new AnalyticsCache(new SimpleMeterRegistry(),
+            100, TTL, TTL, 100, TTL, 100, TTL, Duration.ofHours(1));
+
+    @Test
+    void flushedTotalsInvalidateOnlyThoseDriversAndPassengers() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.driverStats("d1", () -> stats(loads));
+        cache.driverStats("d2", () -> stats(loads));
+        cache.userStats("u1", () -> stats(loads));
+        cache.driverStats("d1", () -> stats(loads));
+        assertEquals(3, loads.get());
+
+        cache.onCountersFlushed(new CountersFlushedEvent(Map.of(
+                RideStats.DRIVER_COLLECTION, Set.of("d1"), RideStats.USER_COLLECTION, Set.of("u1"))));
+
+        cache.driverStats("d1", () -> stats(loads));
+        cache.driverStats("d2", () -> stats(loads));
+        cache.userStats("u1", () -> stats(loads));
+        assertEquals(5, loads.get());
+        assertEquals(2, cache.stats().get("driver-stats").hitCount());
+    }
+
+    @Test
+    void flushedSlotsInvalidateOnlyRangesThatContainThem() {
+        ZoneId kolkata = ZoneId.of("Asia/Kolkata");
+        AnalyticsCache.RidesPerDayKey march10 = key("2024-03-10", "2024-03-10", ZoneId.of("UTC"));
+        AnalyticsCache.RidesPerDayKey march11Kolkata = key("2024-03-11", "2024-03-11", kolkata);
+        AnalyticsCache.RidesPerDayKey april = key("2024-04-01", "2024-04-30", ZoneId.of("UTC"));
+        AtomicInteger loads = new AtomicInteger();
+        for (AnalyticsCache.RidesPerDayKey key : List.of(march10, march11Kolkata, april)) {
+            cache.ridesPerDay(key, () -> rows(loads));
+        }
+        cache.statusSummary(() -> rows(loads));
+        assertEquals(4, loads.get());
+
+        // the 18:30Z slot is March 10 in UTC but already March 11 in Kolkata
+        cache.onCountersFlushed(new CountersFlushedEvent(Map.of(
+                RideBucket.COLLECTION, Set.of(Date.from(Instant.parse("2024-03-10T18:30:00Z"))),
+                RideBucketService.STATUS_COLLECTION, Set.of("all"))));
+
+        cache.ridesPerDay(march10, () -> rows(loads));
+        cache.ridesPerDay(march11Kolkata, () -> rows(loads));
+        cache.ridesPerDay(april, () -> rows(loads));
+        cache.statusSummary(() -> rows(loads));
+        assertEquals(7, loads.get());
+    }
+
+    @Test
+    void lastGoodResultsOutliveInvalidation() {
+        AnalyticsCache.RidesPerDayKey march10 = key("2024-03-10", "2024-03-10", ZoneId.of("UTC"));
+        AtomicInteger loads = new AtomicInteger();
+        assertNull(cache.lastRidesPerDay(march10));
+
+        List<Map<String, Object>> loaded = cache.ridesPerDay(march10, () -> rows(loads));
+        cache.driverStats("d1", () -> stats(loads));
+        cache.onCountersFlushed(new CountersFlushedEvent(Map.of(RideStats.DRIVER_COLLECTION, Set.of("d1"))));
+        cache.invalidateAll();
+
+        assertEquals(loaded, cache.lastRidesPerDay(march10));
+        assertEquals(1, cache.lastDriverStats("d1").orElseThrow().getCompletedRides());
+        assertNull(cache.lastUserStats("u1"));
+        assertNull(cache.lastStatusSummary());
+    }
+
+    private static AnalyticsCache.RidesPerDayKey key(String from, String to, ZoneId zone) {
+        return new AnalyticsCache.RidesPerDayKey(LocalDate.parse(from), LocalDate.parse(to), zone,
+                RideBucketService.Granularity.DAY);
+    }
+
+    private static Optional<RideStats> stats(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return Optional.of(new RideStats("x", 1, 10.0, 2.0, 1));
+    }
+
+    private static List<Map<String, Object>> rows(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return List.of(Map.of("_id", "2024-03-10", "count", 1L));
+    }
+}
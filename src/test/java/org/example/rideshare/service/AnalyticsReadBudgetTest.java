@@ -0,0 +1,128 @@
+package org.example.rideshare.service;
+
+import com.mongodb.ReadPreference;
+import org.bson.Document;
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.exception.ServiceBusyException;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.RideRepository;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Single-node replica set standing in for a production one: secondaryPreferred falls back to the
+ * primary, and the maxTimeAlwaysTimeOut fail point makes every read that carries a maxTimeMS
+ * budget time out while the unbudgeted write path keeps working.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class AnalyticsReadBudgetTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0")
+            .withCommand("--replSet", "docker-rs", "--setParameter", "enableTestCommands=1");
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private AnalyticsReads analyticsReads;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private CounterWriter counters;
+
+    private AuthenticatedUser passenger;
+
+    @BeforeEach
+    void setUp() {
+        rideRepository.deleteAll();
+        userRepository.deleteAll();
+        analyticsCache.invalidateAll();
+        User user = userRepository.save(new User("budget-passenger", "x", "ROLE_USER"));
+        passenger = new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    @AfterEach
+    void tearDown() {
+        failPoint("off");
+    }
+
+    @Test
+    void analyticsReadOffThePrimaryTemplate() {
+        assertEquals(ReadPreference.secondaryPreferred(), analyticsReads.template().getReadPreference());
+        assertNotEquals(ReadPreference.secondaryPreferred(), mongoTemplate.getReadPreference());
+    }
+
+    @Test
+    void overBudgetAnalyticsAnswerFromTheLastGoodResult() {
+        LocalDate today = LocalDate.now();
+        rideService.requestRide(request(), passenger);
+        counters.flush();
+        List<Map<String, Object>> perDay = analytics.getRidesPerDay(today, today, "UTC",
+                RideBucketService.Granularity.DAY);
+        List<Map<String, Object>> statuses = analytics.getStatusSummary();
+        assertEquals(1L, perDay.get(0).get("count"));
+
+        failPoint("alwaysOn");
+        // writes carry no budget; the counter flush drops the fresh cache entries
+        Ride second = rideService.requestRide(request(), passenger);
+        assertNotNull(second.getId());
+        counters.flush();
+
+        assertEquals(perDay, analytics.getRidesPerDay(today, today, "UTC", RideBucketService.Granularity.DAY));
+        assertEquals(statuses, analytics.getStatusSummary());
+        assertThrows(ServiceBusyException.class, () -> analytics.getUserSpending(passenger.getId()));
+        assertThrows(ServiceBusyException.class, () -> rideService.sortByFare("desc", null, 10));
+        // the owner's own list stays on the primary path
+        assertEquals(2, rideService.getUserRides(passenger, null, 10).getItems().size());
+
+        failPoint("off");
+        assertEquals(2L, analytics.getRidesPerDay(today, today, "UTC", RideBucketService.Granularity.DAY)
+                .get(0).get("count"));
+    }
+
+    private void failPoint(String mode) {
+        mongoTemplate.getMongoDatabaseFactory().getMongoDatabase("admin")
+                .runCommand(new Document("configureFailPoint", "maxTimeAlwaysTimeOut").append("mode", mode));
+    }
+
+    private static CreateRideRequest request() {
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPickupLocation("Airport");
+        request.setDropLocation("Mall");
+        return request;
+    }
+}
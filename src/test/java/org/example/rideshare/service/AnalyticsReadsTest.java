@@ -0,0 +1,70 @@
+package org.example.rideshare.service;
+
+import com.mongodb.MongoException;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.rideshare.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyticsReadsTest {
+
+    // never connected to: these tests stop before any command is sent
+    private final MongoClient client = MongoClients.create("mongodb://localhost:1");
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void readsWithTheConfiguredPreferenceAndStaleness() {
+        assertEquals(ReadPreference.secondaryPreferred(), reads("secondaryPreferred", Duration.ZERO)
+                .template().getReadPreference());
+        assertEquals(ReadPreference.secondary(List.of(), 120, TimeUnit.SECONDS),
+                reads("secondary", Duration.ofSeconds(120)).template().getReadPreference());
+    }
+
+    @Test
+    void overBudgetServesLastGoodOrSheds() {
+        AnalyticsReads reads = reads("secondaryPreferred", Duration.ZERO);
+        UncategorizedMongoDbException overBudget = new UncategorizedMongoDbException("query failed",
+                new MongoException(50, "operation exceeded time limit"));
+
+        assertEquals("cached", reads.degrade(AnalyticsReads.Budget.RIDES_PER_DAY, overBudget, () -> "cached"));
+        ServiceBusyException busy = assertThrows(ServiceBusyException.class,
+                () -> reads.degrade(AnalyticsReads.Budget.RIDE_FILTER, overBudget, () -> null));
+        assertEquals(3, busy.getRetryAfterSeconds());
+
+        DataAccessResourceFailureException down = new DataAccessResourceFailureException("no server");
+        assertSame(down, assertThrows(DataAccessResourceFailureException.class,
+                () -> reads.degrade(AnalyticsReads.Budget.RIDES_PER_DAY, down, () -> "cached")));
+
+        assertEquals(1.0, registry.get("rideshare.analytics.budget.exceeded")
+                .tags("query", "rides-per-day", "outcome", "stale").counter().count());
+        assertEquals(1.0, registry.get("rideshare.analytics.budget.exceeded")
+                .tags("query", "ride-filter", "outcome", "unavailable").counter().count());
+    }
+
+    private AnalyticsReads reads(String readPreference, Duration maxStaleness) {
+        return new AnalyticsReads(new SimpleMongoClientDatabaseFactory(client, "test"),
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()), registry,
+                readPreference, maxStaleness, Duration.ofSeconds(2), Duration.ofMillis(500),
+                Duration.ofMillis(500), Duration.ofMillis(2500));
+    }
+}
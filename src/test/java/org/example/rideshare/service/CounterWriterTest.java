@@ -0,0 +1,100 @@
+package org.example.rideshare.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.example.rideshare.event.CountersFlushedEvent;
+import org.example.rideshare.model.RideStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CounterWriterTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final CounterWriter counters = new CounterWriter(mongoTemplate, events, new SimpleMeterRegistry(),
+            Duration.ofHours(1), 100, 3);
+
+    @AfterEach
+    void tearDown() {
+        counters.shutdown();
+    }
+
+    @Test
+    void incrementsForOneDocumentAreSummedIntoOneUpsert() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RideStats.class, RideStats.DRIVER_COLLECTION))
+                .thenReturn(bulk);
+
+        counters.increment(RideStats.class, RideStats.DRIVER_COLLECTION, "d1",
+                Map.of("completedRides", 1L, "totalFare", 12.5), true);
+        counters.increment(RideStats.class, RideStats.DRIVER_COLLECTION, "d1",
+                Map.of("completedRides", 1L, "totalFare", 7.5), true);
+        verifyNoInteractions(mongoTemplate);
+
+        counters.flush();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(1)).upsert(any(Query.class), update.capture());
+        verify(bulk).execute();
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(2L, inc.get("completedRides"));
+        assertEquals(20.0, inc.get("totalFare"));
+        assertTrue(update.getValue().getUpdateObject().containsKey("$currentDate"));
+
+        ArgumentCaptor<CountersFlushedEvent> flushed = ArgumentCaptor.forClass(CountersFlushedEvent.class);
+        verify(events).publishEvent(flushed.capture());
+        assertEquals(Set.of("d1"), flushed.getValue().touched(RideStats.DRIVER_COLLECTION));
+
+        counters.flush();
+        verify(bulk, times(1)).execute();
+    }
+
+    @Test
+    void aFailedFlushIsRetriedAndThenDroppedWithoutAnEvent() {
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(RideStats.class), any(String.class)))
+                .thenReturn(bulk);
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        counters.increment(RideStats.class, RideStats.USER_COLLECTION, "u1", Map.of("completedRides", 1L), true);
+        assertFalse(counters.flush());
+        assertFalse(counters.flush());
+        assertFalse(counters.flush());
+        assertTrue(counters.flush());
+
+        verify(bulk, times(3)).execute();
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void aRetriedDeltaIsWrittenOnceWithLaterIncrements() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RideStats.class, RideStats.USER_COLLECTION))
+                .thenReturn(bulk);
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("down")).thenReturn(null);
+
+        counters.increment(RideStats.class, RideStats.USER_COLLECTION, "u1", Map.of("completedRides", 1L), true);
+        assertFalse(counters.flush());
+        counters.increment(RideStats.class, RideStats.USER_COLLECTION, "u1", Map.of("completedRides", 1L), true);
+        assertTrue(counters.flush());
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(any(Query.class), update.capture());
+        assertEquals(2L, ((Document) update.getValue().getUpdateObject().get("$inc")).get("completedRides"));
+        verify(events).publishEvent(any(CountersFlushedEvent.class));
+    }
+}
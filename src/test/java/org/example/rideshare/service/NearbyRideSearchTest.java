@@ -0,0 +1,97 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.dto.NearbyRideResponse;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.RideRepository;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Checks the in-memory grid against $geoNear and prints the latency of each path. */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class NearbyRideSearchTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearbyRideSearchTest.class);
+
+    private static final int RIDES = 5000;
+    private static final int QUERIES = 200;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (rideRepository.count() > 0) {
+            return;
+        }
+        userRepository.save(new User("passenger", "x", "ROLE_USER"));
+        AuthenticatedUser passenger = principal("passenger");
+        Random random = new Random(7);
+        for (int i = 0; i < RIDES; i++) {
+            CreateRideRequest request = new CreateRideRequest();
+            request.setPickupLocation("P" + i);
+            request.setDropLocation("D" + i);
+            request.setPickupLat(17.3 + random.nextDouble() * 0.4);
+            request.setPickupLon(78.3 + random.nextDouble() * 0.4);
+            rideService.requestRide(request, passenger);
+        }
+    }
+
+    @Test
+    void gridAndGeoNearAgreeAndAreTimed() {
+        Random random = new Random(11);
+        long memoryNanos = 0;
+        long mongoNanos = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            double lat = 17.3 + random.nextDouble() * 0.4;
+            double lon = 78.3 + random.nextDouble() * 0.4;
+
+            long t0 = System.nanoTime();
+            List<NearbyRideResponse> fromMemory = rideService.getNearbyPendingRides(lat, lon, 3, 10, "memory");
+            long t1 = System.nanoTime();
+            List<NearbyRideResponse> fromMongo = rideService.getNearbyPendingRides(lat, lon, 3, 10, "mongo");
+            long t2 = System.nanoTime();
+            memoryNanos += t1 - t0;
+            mongoNanos += t2 - t1;
+
+            assertEquals(ids(fromMongo), ids(fromMemory));
+        }
+        logger.debug("nearby pending rides over {} rides: memory {}us/query, mongo {}us/query", RIDES,
+                String.format("%.1f", memoryNanos / 1e3 / QUERIES), String.format("%.1f", mongoNanos / 1e3 / QUERIES));
+    }
+
+    private static List<String> ids(List<NearbyRideResponse> rides) {
+        return rides.stream().map(r -> r.getRide().getId()).toList();
+    }
+
+    private AuthenticatedUser principal(String username) {
+        User user = userRepository.findByUsername(username).orElseThrow();
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.dto.CursorPage;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.RideRepository;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+@Testcontainers(disabledWithoutDocker = true)
+class ReactiveReadPathTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReadPathTest.class);
+
+    private static final int RIDES = 300;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private ReactiveRideQueryService reactiveRides;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private ReactiveAnalyticsService reactiveAnalytics;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CounterWriter counters;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    private AuthenticatedUser passenger;
+    private AuthenticatedUser driver;
+
+    @BeforeEach
+    void setUp() {
+        rideRepository.deleteAll();
+        userRepository.deleteAll();
+        passenger = principal(userRepository.save(new User("reactive-passenger", "x", "ROLE_USER")));
+        driver = principal(userRepository.save(new User("reactive-driver", "x", "ROLE_DRIVER")));
+        for (int i = 0; i < RIDES; i++) {
+            Ride ride = rideService.requestRide(request(i % 3 == 0 ? "Airport " + i : "Station " + i, "Mall"), passenger);
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(ride.getId())),
+                    new Update().set("fare", 50.0 + i % 40).set("distanceKm", 1.0 + i % 25), Ride.class);
+            if (i % 4 == 0) {
+                rideService.acceptRide(ride.getId(), driver);
+                rideService.completeRide(ride.getId(), driver);
+            }
+        }
+        counters.flush();
+    }
+
+    @Test
+    void pagesMatchTheBlockingStack() {
+        LocalDate today = LocalDate.now();
+        assertSamePages((cursor, limit) -> rideService.searchRides("airport", cursor, limit),
+                (cursor, limit) -> reactiveRides.searchRides("airport", cursor, limit));
+        assertSamePages((cursor, limit) -> rideService.filterByDistance(3.0, 12.0, cursor, limit),
+                (cursor, limit) -> reactiveRides.filterByDistance(3.0, 12.0, cursor, limit));
+        assertSamePages((cursor, limit) -> rideService.filterByDateRange(today.minusDays(1), today, cursor, limit),
+                (cursor, limit) -> reactiveRides.filterByDateRange(today.minusDays(1), today, cursor, limit));
+        assertSamePages((cursor, limit) -> rideService.sortByFare("desc", cursor, limit),
+                (cursor, limit) -> reactiveRides.sortByFare("desc", cursor, limit));
+        assertSamePages((cursor, limit) -> rideService.advancedSearch("station", RideStatus.COMPLETED, "fare",
+                        "asc", cursor, limit),
+                (cursor, limit) -> reactiveRides.advancedSearch("station", RideStatus.COMPLETED, "fare", "asc",
+                        cursor, limit));
+
+        assertEquals(ids(rideService.streamByUserId(passenger.getId()).get().toList()),
+                ids(reactiveRides.streamByUserId(passenger.getId()).collectList().block()));
+    }
+
+    @Test
+    void analyticsMatchTheBlockingStack() {
+        LocalDate today = LocalDate.now();
+        assertEquals(analytics.getDriverSummary(driver.getId()),
+                reactiveAnalytics.getDriverSummary(driver.getId()).block());
+        assertEquals(analytics.getUserSpending(passenger.getId()),
+                reactiveAnalytics.getUserSpending(passenger.getId()).block());
+        assertNull(reactiveAnalytics.getDriverSummary("nobody").block());
+        assertEquals(analytics.getStatusSummary(), reactiveAnalytics.getStatusSummary().block());
+        assertEquals(analytics.getRidesPerDay(today.minusDays(2), today, "UTC", RideBucketService.Granularity.HOUR),
+                reactiveAnalytics.getRidesPerDay(today.minusDays(2), today, "UTC",
+                        RideBucketService.Granularity.HOUR).block());
+    }
+
+    @Test
+    void reportsThreadsAndTailLatencyAgainstTheBlockingStack() throws Exception {
+        int requests = 2000;
+        int concurrency = 200;
+        LocalDate today = LocalDate.now();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        // blocking: one thread per in-flight request, as Tomcat's worker pool would
+        threads.resetPeakThreadCount();
+        long[] blocking = new long[requests];
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> work = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            int n = i;
+            work.add(pool.submit(() -> {
+                long started = System.nanoTime();
+                rideService.filterByDateRange(today.minusDays(1), today, null, 50);
+                blocking[n] = System.nanoTime() - started;
+            }));
+        }
+        for (Future<?> f : work) {
+            f.get();
+        }
+        pool.shutdown();
+        int blockingPeak = threads.getPeakThreadCount();
+
+        // reactive: the same number in flight, driven from one subscribing thread
+        threads.resetPeakThreadCount();
+        long[] reactive = new long[requests];
+        Flux.range(0, requests)
+                .flatMap(n -> {
+                    long started = System.nanoTime();
+                    return reactiveRides.filterByDateRange(today.minusDays(1), today, null, 50)
+                            .doOnNext(page -> reactive[n] = System.nanoTime() - started);
+                }, concurrency)
+                .blockLast();
+        int reactivePeak = threads.getPeakThreadCount();
+
+        logger.debug("blocking: p99 {}ms, peak threads {}", String.format("%.1f", p99Millis(blocking)), blockingPeak);
+        logger.debug("reactive: p99 {}ms, peak threads {}", String.format("%.1f", p99Millis(reactive)), reactivePeak);
+        assertTrue(Arrays.stream(reactive).allMatch(nanos -> nanos > 0));
+    }
+
+    private static void assertSamePages(BiFunction<String, Integer, CursorPage<Ride>> blocking,
+            BiFunction<String, Integer, Mono<CursorPage<Ride>>> reactive) {
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<Ride> expected = blocking.apply(cursor, 25);
+            CursorPage<Ride> actual = reactive.apply(cursor, 25).block();
+            assertEquals(ids(expected.getItems()), ids(actual.getItems()));
+            assertEquals(expected.getNextCursor(), actual.getNextCursor());
+            cursor = expected.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertTrue(pages > 0);
+    }
+
+    private static List<String> ids(List<Ride> rides) {
+        return rides.stream().map(Ride::getId).toList();
+    }
+
+    private static double p99Millis(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1e6;
+    }
+
+    private static CreateRideRequest request(String pickup, String drop) {
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPickupLocation(pickup);
+        request.setDropLocation(drop);
+        return request;
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.dispatch.PendingRideIndex;
+import org.example.rideshare.dto.BatchRideResult;
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.RideRepository;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.access.AccessDeniedException;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class RideBatchCreateTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideBatchCreateTest.class);
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private PendingRideIndex pendingRideIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    private AuthenticatedUser passenger;
+
+    @BeforeEach
+    void setUp() {
+        rideRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = userRepository.save(new User("batch-passenger", "x", "ROLE_USER"));
+        passenger = new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+
+    @Test
+    void returnsOneResultPerItemInRequestOrder() {
+        int pendingBefore = pendingRideIndex.size();
+        CreateRideRequest halfCoordinates = request("C", "D");
+        halfCoordinates.setPickupLat(17.4);
+
+        BatchRideResult result = rideService.requestRides(
+                List.of(request("A", "B"), request("", "B"), halfCoordinates, request("E", "F")), passenger);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(2, result.getRejected());
+        List<BatchRideResult.Status> statuses = result.getItems().stream().map(BatchRideResult.Item::getStatus).toList();
+        assertEquals(List.of(BatchRideResult.Status.CREATED, BatchRideResult.Status.INVALID,
+                BatchRideResult.Status.INVALID, BatchRideResult.Status.CREATED), statuses);
+        assertEquals("Pickup location is required", result.getItems().get(1).getError());
+        assertEquals(2, rideRepository.count());
+        assertTrue(rideRepository.existsById(result.getItems().get(3).getRide().getId()));
+        assertEquals(pendingBefore + 2, pendingRideIndex.size());
+    }
+
+    @Test
+    void onlyPassengersCanSubmitBatches() {
+        AuthenticatedUser driver = new AuthenticatedUser("d", "driver", "ROLE_DRIVER");
+        assertThrows(AccessDeniedException.class, () -> rideService.requestRides(List.of(request("A", "B")), driver));
+    }
+
+    @Test
+    void reportsThroughputAgainstSingleInserts() {
+        int rides = 500;
+        List<CreateRideRequest> requests = new ArrayList<>();
+        for (int i = 0; i < rides; i++) {
+            requests.add(request("A" + i, "B" + i));
+        }
+
+        long started = System.nanoTime();
+        for (CreateRideRequest request : requests) {
+            rideService.requestRide(request, passenger);
+        }
+        double single = (System.nanoTime() - started) / 1e9;
+
+        started = System.nanoTime();
+        BatchRideResult result = rideService.requestRides(requests, passenger);
+        double batch = (System.nanoTime() - started) / 1e9;
+
+        logger.debug("ride creation: single {}/s, batch {}/s ({}x)", String.format("%.0f", rides / single),
+                String.format("%.0f", rides / batch), String.format("%.1f", single / batch));
+        assertEquals(rides, result.getCreated());
+        assertEquals(rides * 2L, rideRepository.count());
+    }
+
+    private static CreateRideRequest request(String pickup, String drop) {
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPickupLocation(pickup);
+        request.setDropLocation(drop);
+        return request;
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideBucket;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.RideRepository;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class RideBucketServiceTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private RideBucketService rideBuckets;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CounterWriter counters;
+
+    @BeforeEach
+    void setUp() {
+        counters.flush();
+        rideRepository.deleteAll();
+        userRepository.deleteAll();
+        mongoTemplate.dropCollection(RideBucket.class);
+        mongoTemplate.dropCollection(RideBucketService.STATUS_COLLECTION);
+        analyticsCache.invalidateAll();
+    }
+
+    @Test
+    void periodsFollowTheRequestedTimeZone() {
+        ride("2024-03-10T18:20:00Z");
+        ride("2024-03-10T18:40:00Z");
+        ride("2024-03-11T02:00:00Z");
+        rideBuckets.rebuild();
+
+        LocalDate from = LocalDate.of(2024, 3, 10);
+        LocalDate to = LocalDate.of(2024, 3, 11);
+        assertEquals(List.of(row("2024-03-10", 2), row("2024-03-11", 1)),
+                counts(analytics.getRidesPerDay(from, to, "UTC", RideBucketService.Granularity.DAY)));
+        // +05:30: 18:40Z is already the next local day
+        assertEquals(List.of(row("2024-03-10", 1), row("2024-03-11", 2)),
+                counts(analytics.getRidesPerDay(from, to, "Asia/Kolkata", RideBucketService.Granularity.DAY)));
+        assertEquals(List.of(row("2024-03-10T23:00+05:30", 1), row("2024-03-11T00:00+05:30", 1),
+                        row("2024-03-11T07:00+05:30", 1)),
+                counts(analytics.getRidesPerDay(from, to, "Asia/Kolkata", RideBucketService.Granularity.HOUR)));
+        assertEquals(List.of(row("2024-03-11", 1)),
+                counts(analytics.getRidesPerDay(to, to, "UTC", RideBucketService.Granularity.DAY)));
+    }
+
+    @Test
+    void liveCountersAgreeWithARebuild() {
+        AuthenticatedUser passenger = principal(userRepository.save(new User("bucket-passenger", "x", "ROLE_USER")));
+        AuthenticatedUser driver = principal(userRepository.save(new User("bucket-driver", "x", "ROLE_DRIVER")));
+        String first = rideService.requestRide(request(), passenger).getId();
+        String second = rideService.requestRide(request(), passenger).getId();
+        rideService.requestRide(request(), passenger);
+        rideService.acceptRide(first, driver);
+        rideService.acceptRide(second, driver);
+        rideService.completeRide(first, driver);
+        counters.flush();
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<Map<String, Object>> live = analytics.getRidesPerDay(today.minusDays(1), today, "UTC",
+                RideBucketService.Granularity.DAY);
+        List<Map<String, Object>> liveStatus = analytics.getStatusSummary();
+        assertEquals(List.of(Map.of("_id", "REQUESTED", "count", 1L), Map.of("_id", "ACCEPTED", "count", 1L),
+                Map.of("_id", "COMPLETED", "count", 1L)), liveStatus);
+
+        rideBuckets.rebuild();
+        assertEquals(live, analytics.getRidesPerDay(today.minusDays(1), today, "UTC",
+                RideBucketService.Granularity.DAY));
+        assertEquals(liveStatus, analytics.getStatusSummary());
+    }
+
+    private void ride(String createdAt) {
+        Ride ride = new Ride("user", "A", "B");
+        ride.setCreatedAt(Date.from(Instant.parse(createdAt)));
+        rideRepository.save(ride);
+    }
+
+    private static List<Map<String, Object>> counts(List<Map<String, Object>> rows) {
+        return rows.stream().map(r -> Map.of("_id", r.get("_id"), "count", r.get("count"))).toList();
+    }
+
+    private static Map<String, Object> row(String period, long count) {
+        return Map.of("_id", period, "count", count);
+    }
+
+    private static CreateRideRequest request() {
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPickupLocation("A");
+        request.setDropLocation("B");
+        return request;
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.rideshare.service;
+
+import org.bson.types.ObjectId;
+import org.example.rideshare.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RideCursorTest {
+
+    @Test
+    void roundTripsDatesNumbersAndNulls() {
+        String id = new ObjectId().toHexString();
+        Date createdAt = new Date(1_700_000_000_123L);
+
+        RideCursor byDate = RideCursor.decode(
+                new RideCursor("createdAt", Sort.Direction.DESC, createdAt, id).encode(),
+                "createdAt", Sort.Direction.DESC);
+        assertEquals(createdAt, byDate.value());
+        assertEquals(id, byDate.id());
+
+        RideCursor byScore = RideCursor.decode(
+                new RideCursor("score", Sort.Direction.DESC, 1.0833333333333333, id).encode(),
+                "score", Sort.Direction.DESC);
+        assertEquals(1.0833333333333333, byScore.value());
+
+        RideCursor byFare = RideCursor.decode(
+                new RideCursor("fare", Sort.Direction.ASC, null, id).encode(),
+                "fare", Sort.Direction.ASC);
+        assertNull(byFare.value());
+    }
+
+    @Test
+    void firstPageHasNoCursor() {
+        assertNull(RideCursor.decode(null, "createdAt", Sort.Direction.ASC));
+        assertNull(RideCursor.decode("", "createdAt", Sort.Direction.ASC));
+    }
+
+    @Test
+    void rejectsCursorsFromAnotherOrderingOrGarbage() {
+        String cursor = new RideCursor("fare", Sort.Direction.ASC, 12.5, new ObjectId().toHexString()).encode();
+
+        assertThrows(BadRequestException.class, () -> RideCursor.decode(cursor, "fare", Sort.Direction.DESC));
+        assertThrows(BadRequestException.class, () -> RideCursor.decode(cursor, "distanceKm", Sort.Direction.ASC));
+        assertThrows(BadRequestException.class, () -> RideCursor.decode("not a cursor!", "fare", Sort.Direction.ASC));
+    }
+
+    @Test
+    void rejectsPendingCursorsWithoutATimestamp() {
+        String id = new ObjectId().toHexString();
+        String nullKey = new RideCursor("createdAt", Sort.Direction.ASC, null, id).encode();
+        String numberKey = new RideCursor("createdAt", Sort.Direction.ASC, 12.5, id).encode();
+
+        assertThrows(BadRequestException.class,
+                () -> RideCursor.decode(nullKey, "createdAt", Sort.Direction.ASC).dateValue());
+        assertThrows(BadRequestException.class,
+                () -> RideCursor.decode(numberKey, "createdAt", Sort.Direction.ASC).dateValue());
+        Date createdAt = new Date(1_700_000_000_123L);
+        assertEquals(createdAt, RideCursor.decode(new RideCursor("createdAt", Sort.Direction.ASC, createdAt, id)
+                .encode(), "createdAt", Sort.Direction.ASC).dateValue());
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.rideshare.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The contention tests again, with ride writes going through the group-commit batcher
+@SpringBootTest(properties = "rideshare.writes.group-commit.enabled=true")
+@Testcontainers(disabledWithoutDocker = true)
+class RideGroupCommitTest extends RideTransitionContentionTest {
+
+    @Autowired
+    private RideWriteBatcher writeBatcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void writesGoThroughTheBatcher() throws Exception {
+        assertTrue(writeBatcher.isRunning());
+        exactlyOneDriverWinsTheRace();
+
+        // one insert plus 32 racing accepts
+        assertTrue(meterRegistry.get("rideshare.writes.batch.size").summary().count() > 0);
+        assertTrue(meterRegistry.get("rideshare.writes.batch.size").summary().totalAmount() >= 33);
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.rideshare.service;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every RideService query against a real MongoDB, captures the commands the driver sends
+ * and fails if explain() reports a collection scan for any of them.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class RideQueryPlanTest {
+
+    private static final Set<String> QUERY_COMMANDS = Set.of("find", "aggregate", "findAndModify", "count");
+    private static final Set<String> COMMAND_ENVELOPE = Set.of("$db", "lsid", "$clusterTime", "$readPreference",
+            "txnNumber", "apiVersion");
+
+    private static final List<BsonDocument> captured = new CopyOnWriteArrayList<>();
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @TestConfiguration
+    static class CaptureCommands {
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCapture() {
+            return builder -> builder.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (QUERY_COMMANDS.contains(event.getCommandName())) {
+                        captured.add(event.getCommand().clone());
+                    }
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void noRideServiceQueryScansTheCollection() {
+        User passengerUser = userRepository.save(new User("plan-passenger", "x", "ROLE_USER"));
+        User driverUser = userRepository.save(new User("plan-driver", "x", "ROLE_DRIVER"));
+        AuthenticatedUser passenger = new AuthenticatedUser(passengerUser.getId(), "plan-passenger", "ROLE_USER");
+        AuthenticatedUser driver = new AuthenticatedUser(driverUser.getId(), "plan-driver", "ROLE_DRIVER");
+
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPickupLocation("Airport Terminal 1");
+        request.setDropLocation("Downtown Hotel");
+        request.setPickupLat(17.24);
+        request.setPickupLon(78.43);
+        Ride ride = rideService.requestRide(request, passenger);
+        Ride other = rideService.requestRide(request, passenger);
+
+        captured.clear();
+
+        rideService.acceptRide(ride.getId(), driver);
+        rideService.completeRide(ride.getId(), driver);
+        rideService.getUserRides(passenger, null, 20);
+        rideService.getDriverRides(driver, null, 20);
+        rideService.getNearbyPendingRides(17.24, 78.43, 5, 10, "mongo");
+        rideService.filterByDistance(1.0, 10.0, null, 20);
+        rideService.filterByDateRange(LocalDate.now().minusDays(1), LocalDate.now(), null, 20);
+        rideService.sortByFare("desc", null, 20);
+        rideService.getRidesByUserId(passenger.getId(), null, 20);
+        rideService.getRidesByUserAndStatus(passenger.getId(), RideStatus.COMPLETED, null, 20);
+        rideService.getDriverActiveRides(driver.getId(), null, 20);
+        rideService.advancedSearch(null, RideStatus.REQUESTED, "createdAt", "asc", null, 10);
+        rideService.getRidesByDate(LocalDate.now(), null, 20);
+        rideService.searchRides("airport", null, 10);
+        rideService.filterByStatusAndKeyword(RideStatus.REQUESTED, "hotel", null, 10);
+        rideService.advancedSearch("terminal", RideStatus.REQUESTED, null, "asc", null, 10);
+        // later pages resume from the cursor instead of skipping rows
+        String next = rideService.getRidesByUserId(passenger.getId(), null, 1).getNextCursor();
+        assertNotNull(next);
+        rideService.getRidesByUserId(passenger.getId(), next, 1);
+        String nextMatch = rideService.searchRides("airport", null, 1).getNextCursor();
+        assertNotNull(nextMatch);
+        rideService.searchRides("airport", nextMatch, 1);
+        try (Stream<Ride> export = rideService.streamByDateRange(LocalDate.now().minusDays(1), LocalDate.now()).get()) {
+            assertEquals(2, export.count());
+        }
+        try (Stream<Ride> export = rideService.streamByUserId(passenger.getId()).get()) {
+            assertEquals(2, export.count());
+        }
+        try (Stream<Ride> export = analyticsService.streamDriverCompletedRides(driver.getId()).get()) {
+            assertEquals(1, export.count());
+        }
+        try (Stream<Ride> export = analyticsService.streamUserCompletedRides(passenger.getId()).get()) {
+            assertEquals(1, export.count());
+        }
+        userRepository.existsByUsername("plan-passenger");
+        assertNotNull(other.getId());
+
+        assertFalse(captured.isEmpty());
+        List<String> scans = new ArrayList<>();
+        for (BsonDocument command : captured) {
+            BsonDocument query = command.clone();
+            COMMAND_ENVELOPE.forEach(query::remove);
+            Document plan = mongoTemplate.getDb().runCommand(
+                    new Document("explain", query).append("verbosity", "queryPlanner"));
+            if (plan.toJson().contains("\"COLLSCAN\"")) {
+                scans.add(query.toJson());
+            }
+        }
+        assertTrue(scans.isEmpty(), "collection scans: " + scans);
+    }
+}
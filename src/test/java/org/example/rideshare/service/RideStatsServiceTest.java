@@ -0,0 +1,180 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.dto.StatsReconcileReport;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStats;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.RideRepository;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
+
+// counters only land on an explicit flush here, so the tests see exactly what is pending
+@SpringBootTest(properties = "rideshare.counters.flush-interval=1h")
+@Testcontainers(disabledWithoutDocker = true)
+class RideStatsServiceTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private RideStatsService rideStats;
+
+    @Autowired
+    private AnalyticsService analytics;
+
+    @SpyBean
+    private CounterWriter counters;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private AuthenticatedUser passenger;
+    private AuthenticatedUser driver;
+
+    @BeforeEach
+    void setUp() {
+        counters.flush();
+        rideRepository.deleteAll();
+        userRepository.deleteAll();
+        mongoTemplate.dropCollection(RideStats.DRIVER_COLLECTION);
+        mongoTemplate.dropCollection(RideStats.USER_COLLECTION);
+        passenger = principal(userRepository.save(new User("stats-passenger", "x", "ROLE_USER")));
+        driver = principal(userRepository.save(new User("stats-driver", "x", "ROLE_DRIVER")));
+    }
+
+    @Test
+    void completionsAreCountedAsTheyHappen() {
+        complete(12.5, 3.0);
+        complete(7.5, null);
+        rideService.acceptRide(rideService.requestRide(request(), passenger).getId(), driver); // not completed
+        counters.flush();
+
+        assertEquals(20.0, analytics.totalEarnings(driver.getId()));
+
+        Map<String, Object> summary = analytics.getDriverSummary(driver.getId());
+        assertEquals(2L, summary.get("completedRides"));
+        assertEquals(20.0, summary.get("totalEarnings"));
+        assertEquals(3.0, summary.get("avgDistance"));
+
+        Map<String, Object> spending = analytics.getUserSpending(passenger.getId());
+        assertEquals(2L, spending.get("totalRides"));
+        assertEquals(20.0, spending.get("totalSpent"));
+
+        List<StatsReconcileReport> reports = rideStats.reconcile(false);
+        assertTrue(reports.stream().allMatch(r -> r.getDrifted() == 0 && r.getOrphaned() == 0), reports.toString());
+    }
+
+    @Test
+    void reconcileReportsAndRepairsDrift() {
+        complete(10.0, 2.0);
+        counters.flush();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(driver.getId())),
+                new Update().inc("totalFare", 99.0), RideStats.class, RideStats.DRIVER_COLLECTION);
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(passenger.getId())), RideStats.USER_COLLECTION);
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is("ghost")),
+                new Update().inc("completedRides", 1), RideStats.class, RideStats.DRIVER_COLLECTION);
+
+        List<StatsReconcileReport> dryRun = rideStats.reconcile(false);
+        assertEquals(1, dryRun.get(0).getDrifted());
+        assertEquals(1, dryRun.get(0).getOrphaned());
+        assertEquals(1, dryRun.get(1).getDrifted());
+        assertEquals(109.0, analytics.totalEarnings(driver.getId()));
+
+        rideStats.reconcile(true);
+        assertEquals(10.0, analytics.totalEarnings(driver.getId()));
+        assertEquals(10.0, analytics.getUserSpending(passenger.getId()).get("totalSpent"));
+        assertNull(driverStats("ghost"));
+        assertTrue(rideStats.reconcile(false).stream().allMatch(r -> r.getDrifted() == 0 && r.getOrphaned() == 0));
+    }
+
+    @Test
+    void aCompletionDuringARepairIsCountedOnce() {
+        complete(10.0, 2.0);
+        counters.flush();
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(driver.getId())),
+                new Update().inc("totalFare", 99.0), RideStats.class, RideStats.DRIVER_COLLECTION);
+        AtomicBoolean once = new AtomicBoolean();
+        doAnswer(invocation -> {
+            if (once.compareAndSet(false, true)) {
+                complete(5.0, 1.0); // lands after the reconcile has started
+            }
+            return invocation.callRealMethod();
+        }).when(counters).flush();
+
+        rideStats.reconcile(true);
+        counters.flush();
+
+        RideStats totals = driverStats(driver.getId());
+        assertEquals(2, totals.getCompletedRides());
+        assertEquals(15.0, totals.getTotalFare());
+        assertTrue(rideStats.reconcile(false).stream().allMatch(r -> r.getDrifted() == 0));
+    }
+
+    @Test
+    void completionsAreWrittenOffTheRequestThread() {
+        complete(10.0, 2.0);
+        complete(5.0, 1.0);
+        assertNull(driverStats(driver.getId()));
+
+        counters.flush();
+        RideStats totals = driverStats(driver.getId());
+        assertEquals(2, totals.getCompletedRides());
+        assertEquals(15.0, totals.getTotalFare());
+        assertNotNull(totals.getUpdatedAt());
+    }
+
+    // the stored counters themselves, not the cached analytics view of them
+    private RideStats driverStats(String driverId) {
+        return mongoTemplate.findById(driverId, RideStats.class, RideStats.DRIVER_COLLECTION);
+    }
+
+    private void complete(Double fare, Double distanceKm) {
+        Ride ride = rideService.requestRide(request(), passenger);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(ride.getId())),
+                new Update().set("fare", fare).set("distanceKm", distanceKm), Ride.class);
+        rideService.acceptRide(ride.getId(), driver);
+        rideService.completeRide(ride.getId(), driver);
+    }
+
+    private static CreateRideRequest request() {
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPickupLocation("A");
+        request.setDropLocation("B");
+        return request;
+    }
+
+    private static AuthenticatedUser principal(User user) {
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.dto.CreateRideRequest;
+import org.example.rideshare.exception.BadRequestException;
+import org.example.rideshare.model.Ride;
+import org.example.rideshare.model.RideStatus;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.RideRepository;
+import org.example.rideshare.repository.UserRepository;
+import org.example.rideshare.security.AuthenticatedUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.access.AccessDeniedException;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class RideTransitionContentionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RideTransitionContentionTest.class);
+
+    private static final int DRIVERS = 32;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private RideService rideService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RideRepository rideRepository;
+
+    @BeforeEach
+    void setUp() {
+        rideRepository.deleteAll();
+        userRepository.deleteAll();
+        userRepository.save(new User("passenger", "x", "ROLE_USER"));
+        for (int i = 0; i < DRIVERS; i++) {
+            userRepository.save(new User("driver" + i, "x", "ROLE_DRIVER"));
+        }
+    }
+
+    @Test
+    void exactlyOneDriverWinsTheRace() throws Exception {
+        Ride ride = rideService.requestRide(request("A", "B"), principal("passenger"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(DRIVERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<Ride>> results = new ArrayList<>();
+        for (int i = 0; i < DRIVERS; i++) {
+            AuthenticatedUser driver = principal("driver" + i);
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    return rideService.acceptRide(ride.getId(), driver);
+                } catch (BadRequestException e) {
+                    rejected.incrementAndGet();
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+
+        List<Ride> winners = new ArrayList<>();
+        for (Future<Ride> f : results) {
+            Ride r = f.get();
+            if (r != null) {
+                winners.add(r);
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(1, winners.size());
+        assertEquals(DRIVERS - 1, rejected.get());
+
+        Ride stored = rideRepository.findById(ride.getId()).orElseThrow();
+        assertEquals(RideStatus.ACCEPTED, stored.getStatus());
+        assertEquals(winners.get(0).getDriverId(), stored.getDriverId());
+    }
+
+    @Test
+    void onlyParticipantsCanComplete() {
+        Ride ride = rideService.requestRide(request("A", "B"), principal("passenger"));
+        rideService.acceptRide(ride.getId(), principal("driver0"));
+
+        assertThrows(AccessDeniedException.class,
+                () -> rideService.completeRide(ride.getId(), principal("driver1")));
+
+        Ride completed = rideService.completeRide(ride.getId(), principal("passenger"));
+        assertEquals(RideStatus.COMPLETED, completed.getStatus());
+
+        assertThrows(BadRequestException.class, () -> rideService.completeRide(ride.getId(), principal("driver0")));
+    }
+
+    @Test
+    void reportsTransitionThroughput() throws Exception {
+        int rides = 500;
+        AuthenticatedUser passenger = principal("passenger");
+        List<AuthenticatedUser> drivers = new ArrayList<>();
+        for (int i = 0; i < DRIVERS; i++) {
+            drivers.add(principal("driver" + i));
+        }
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < rides; i++) {
+            ids.add(rideService.requestRide(request("A" + i, "B" + i), passenger).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        long started = System.nanoTime();
+        List<Future<?>> work = new ArrayList<>();
+        for (int i = 0; i < rides; i++) {
+            String id = ids.get(i);
+            AuthenticatedUser driver = drivers.get(i % DRIVERS);
+            work.add(pool.submit(() -> {
+                rideService.acceptRide(id, driver);
+                rideService.completeRide(id, driver);
+            }));
+        }
+        for (Future<?> f : work) {
+            f.get();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        pool.shutdown();
+
+        logger.debug("lifecycle transitions: {} in {}s ({}/s)", rides * 2, String.format("%.2f", seconds),
+                String.format("%.0f", rides * 2 / seconds));
+        assertEquals(rides, rideRepository.findByStatus(RideStatus.COMPLETED).size());
+    }
+
+    private static CreateRideRequest request(String pickup, String drop) {
+        CreateRideRequest request = new CreateRideRequest();
+        request.setPickupLocation(pickup);
+        request.setDropLocation(drop);
+        return request;
+    }
+
+    private AuthenticatedUser principal(String username) {
+        User user = userRepository.findByUsername(username).orElseThrow();
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getRole());
+    }
+}
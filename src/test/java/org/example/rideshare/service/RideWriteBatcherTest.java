@@ -0,0 +1,53 @@
+package org.example.rideshare.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.WriteConcernError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.example.rideshare.model.Ride;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RideWriteBatcherTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulk = mock(BulkOperations.class);
+    private final RideWriteBatcher batcher = new RideWriteBatcher(mongoTemplate, new SimpleMeterRegistry(), true,
+            8, Duration.ofMillis(1), 100);
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    void aWriteConcernErrorFailsTheWholeBatch() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ride.class)).thenReturn(bulk);
+        WriteConcernError timeout = new WriteConcernError(64, "WriteConcernFailed", "waiting for replication timed out",
+                new BsonDocument());
+        when(bulk.execute()).thenThrow(new BulkOperationException("write concern",
+                new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(), timeout,
+                        new ServerAddress(), Set.of())));
+        batcher.start();
+
+        DataAccessResourceFailureException error = assertThrows(DataAccessResourceFailureException.class,
+                () -> batcher.insert(new Ride("u1", "A", "B")));
+
+        assertTrue(error.getMessage().contains("Write concern not satisfied"));
+        verify(mongoTemplate, never()).find(any(), any());
+    }
+}
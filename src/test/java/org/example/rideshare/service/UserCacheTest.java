@@ -0,0 +1,56 @@
+package org.example.rideshare.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserCacheTest {
+
+    private final UserRepository repository = mock(UserRepository.class);
+    private final UserCache cache = new UserCache(repository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Test
+    void repeatedLookupsHitMongoOnce() {
+        when(repository.findByUsername("alice")).thenReturn(Optional.of(user("1", "alice", "hash")));
+
+        assertEquals("1", cache.find("alice").orElseThrow().id());
+        assertEquals("hash", cache.find("alice").orElseThrow().passwordHash());
+
+        verify(repository, times(1)).findByUsername("alice");
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void unknownUsersAreNotCached() {
+        when(repository.findByUsername("bob")).thenReturn(Optional.empty());
+        assertTrue(cache.find("bob").isEmpty());
+
+        when(repository.findByUsername("bob")).thenReturn(Optional.of(user("2", "bob", "hash")));
+        assertTrue(cache.find("bob").isPresent());
+    }
+
+    @Test
+    void refreshAndInvalidateReplaceCachedEntry() {
+        cache.refresh(user("3", "carol", "old"));
+        assertEquals("old", cache.find("carol").orElseThrow().passwordHash());
+        verifyNoInteractions(repository);
+
+        cache.invalidate("carol");
+        when(repository.findByUsername("carol")).thenReturn(Optional.of(user("3", "carol", "new")));
+        assertEquals("new", cache.find("carol").orElseThrow().passwordHash());
+    }
+
+    private static User user(String id, String username, String password) {
+        User user = new User(username, password, "ROLE_USER");
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.dto.RegisterRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportServiceTest {
+
+    @Test
+    void quotedFieldsKeepTheirCommasAndQuotes() {
+        RegisterRequest request = UserImportService.parse("alice,\"se,cr\"\"et\",ROLE_USER", "ROLE_DRIVER");
+
+        assertEquals("alice", request.getUsername());
+        assertEquals("se,cr\"et", request.getPassword());
+        assertEquals("ROLE_USER", request.getRole());
+    }
+
+    @Test
+    void unquotedRowsSplitOnEveryComma() {
+        assertEquals(List.of("bob", "secret", ""), UserImportService.fields("bob,secret,"));
+        assertEquals(List.of("bob", "sec", "ret"), UserImportService.fields("bob,sec,ret"));
+        assertEquals("ROLE_DRIVER", UserImportService.parse("bob,secret,", "ROLE_DRIVER").getRole());
+    }
+
+    @Test
+    void aBrokenQuoteIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> UserImportService.fields("bob,\"secret"));
+        assertThrows(IllegalArgumentException.class, () -> UserImportService.fields("bob,\"sec\"ret"));
+    }
+}
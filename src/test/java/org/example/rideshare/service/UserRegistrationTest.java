@@ -0,0 +1,120 @@
+package org.example.rideshare.service;
+
+import org.example.rideshare.controller.AuthController;
+import org.example.rideshare.dto.RegisterRequest;
+import org.example.rideshare.dto.UserImportReport;
+import org.example.rideshare.model.User;
+import org.example.rideshare.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "rideshare.auth.bcrypt.strength=4")
+@Testcontainers(disabledWithoutDocker = true)
+class UserRegistrationTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private AuthController authController;
+
+    @Autowired
+    private UserImportService importService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentRegistrationsOfOneNameCreateOneUser() throws Exception {
+        int callers = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    CompletableFuture<String> result = authController.register(register("racer", "secret1", "ROLE_USER"));
+                    return result.join();
+                }));
+            }
+            start.countDown();
+
+            List<String> outcomes = new ArrayList<>();
+            for (Future<String> result : results) {
+                outcomes.add(result.get());
+            }
+            assertEquals(1, outcomes.stream().filter("User registered successfully"::equals).count());
+            assertEquals(callers - 1, outcomes.stream().filter("Username already taken"::equals).count());
+            assertEquals(1, userRepository.count());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void importsUnorderedAndReportsEveryRow() throws Exception {
+        userRepository.save(new User("taken", "x", "ROLE_DRIVER"));
+        StringBuilder csv = new StringBuilder("username,password,role\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append("fleet-").append(i).append(",password").append(i).append('\n');
+        }
+        csv.append("taken,password,ROLE_DRIVER\n");
+        csv.append("fleet-0,password,ROLE_DRIVER\n");
+        csv.append("x,password\n");
+        csv.append("rider,password,ROLE_USER\n");
+        csv.append("commas,\"pa,ss\"\"word\",ROLE_DRIVER\n");
+
+        UserImportReport report = importService.importCsv(new BufferedReader(new StringReader(csv.toString())),
+                "ROLE_DRIVER");
+
+        assertEquals(27, report.getImported());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(1, report.getInvalid());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getUsersPerSecond() > 0);
+
+        User driver = userRepository.findByUsername("fleet-7").orElseThrow();
+        assertEquals("ROLE_DRIVER", driver.getRole());
+        assertTrue(passwordEncoder.matches("password7", driver.getPassword()));
+        assertEquals("ROLE_USER", userRepository.findByUsername("rider").orElseThrow().getRole());
+        assertTrue(passwordEncoder.matches("pa,ss\"word",
+                userRepository.findByUsername("commas").orElseThrow().getPassword()));
+    }
+
+    private static RegisterRequest register(String username, String password, String role) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        request.setRole(role);
+        return request;
+    }
+}